@@ -0,0 +1,19 @@
+package microservice.apigateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+@Configuration
+public class TracingConfig {
+
+    /** Writes finished spans to the application log (and so to logging.file.name when set). */
+    @Bean
+    @ConditionalOnProperty(name = "tracing.logging-exporter.enabled", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,10 @@
+package microservice.apigateway.filters;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+public record CachedResponse(String routeId, HttpStatusCode status, HttpHeaders headers, byte[] body, String etag,
+        Duration ttl) {
+}
@@ -0,0 +1,79 @@
+package microservice.apigateway.filters;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Gateway-wide store of GET responses, bounded by total body size. Each entry
+ * expires after the TTL of the route that produced it.
+ */
+@Component
+public class ResponseCache {
+    private final Cache<String, CachedResponse> cache;
+    // bumped on every invalidation so responses fetched before a write are not stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(@Value("${gateway.response-cache.max-size-bytes:67108864}") long maxSizeBytes,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                            long currentDuration) {
+                        return response.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+        Gauge.builder("gateway.response.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cacheable GETs served by the gateway")
+                .register(meterRegistry);
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String key, CachedResponse response, long fetchedAtGeneration) {
+        cache.put(key, response);
+        if (generation.get() != fetchedAtGeneration)
+            cache.invalidate(key);
+    }
+
+    /**
+     * Drops every entry of the route written through: a write to one item
+     * changes the collection and the query endpoints listing it too.
+     */
+    public void invalidate(String routeId) {
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(response -> response.routeId().equals(routeId));
+    }
+}
@@ -0,0 +1,227 @@
+package microservice.apigateway.filters;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches successful, unencoded JSON GET responses of a route and answers
+ * conditional GETs with 304 when the client's If-None-Match matches. Writes
+ * (POST, PUT, PATCH, DELETE) through the route invalidate all its cached
+ * responses.
+ *
+ * <pre>
+ * filters:
+ *   - ResponseCache=30s
+ * </pre>
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+    private static final String CACHE_HEADER = "X-Cache";
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.SET_COOKIE, CACHE_HEADER);
+
+    private final ResponseCache responseCache;
+    private final int maxEntryBytes;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache,
+            @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // must wrap the response before NettyWriteResponseFilter captures it
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            Route route = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+
+            if (HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method)
+                    || HttpMethod.PATCH.equals(method) || HttpMethod.DELETE.equals(method))
+                return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(route.getId()));
+            if (!HttpMethod.GET.equals(method))
+                return chain.filter(exchange);
+
+            String key = cacheKey(request);
+            CachedResponse cached = responseCache.get(key);
+            if (cached != null)
+                return writeCached(exchange, cached);
+
+            CachingResponse response = new CachingResponse(exchange, route.getId(), key,
+                    responseCache.generation(), config.getTtl());
+            return chain.filter(exchange.mutate().response(response).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_HEADER, "HIT");
+
+        if (etagMatches(exchange.getRequest().getHeaders(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static String cacheKey(ServerHttpRequest request) {
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return request.getURI().getRawPath() + "?" + request.getURI().getRawQuery() + "|" + accept;
+    }
+
+    private static boolean etagMatches(HttpHeaders requestHeaders, String etag) {
+        if (etag == null)
+            return false;
+        List<String> ifNoneMatch;
+        try {
+            ifNoneMatch = requestHeaders.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || stripWeak(tag).equals(opaque));
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        UNCACHED_HEADERS.forEach(copy::remove);
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    /**
+     * Buffers a cacheable backend response, stores it, and then writes it (or
+     * a 304) to the client. Only JSON bodies are cached; a body without a
+     * Content-Length is buffered up to maxEntryBytes and, past that, written
+     * through uncached.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+        private final ServerWebExchange exchange;
+        private final String routeId;
+        private final String key;
+        private final long generation;
+        private final Duration ttl;
+
+        private CachingResponse(ServerWebExchange exchange, String routeId, String key, long generation,
+                Duration ttl) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.routeId = routeId;
+            this.key = key;
+            this.generation = generation;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable())
+                return super.writeWith(body);
+
+            // the first list holds the whole body if it fits, else the buffers up to the one overflowing
+            AtomicInteger size = new AtomicInteger();
+            return Flux.<DataBuffer>from(body)
+                    .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxEntryBytes)
+                    .switchOnFirst((first, lists) -> {
+                        if (first.hasValue() && size.get() <= maxEntryBytes)
+                            return cacheAndWrite(first.get());
+                        return getDelegate().writeWith(lists.flatMapIterable(buffers -> buffers));
+                    })
+                    .then();
+        }
+
+        private Mono<Void> cacheAndWrite(List<DataBuffer> buffers) {
+            DataBuffer joined = bufferFactory().join(buffers);
+            byte[] bytes = new byte[joined.readableByteCount()];
+            joined.read(bytes);
+            DataBufferUtils.release(joined);
+
+            HttpHeaders headers = getHeaders();
+            String etag = headers.getETag() != null ? headers.getETag()
+                    : "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            headers.setETag(etag);
+            headers.set(CACHE_HEADER, "MISS");
+
+            CachedResponse cached = new CachedResponse(routeId, getStatusCode(), cacheableHeaders(headers), bytes,
+                    etag, ttl);
+            responseCache.put(key, cached, generation);
+
+            if (etagMatches(exchange.getRequest().getHeaders(), etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return getDelegate().setComplete();
+            }
+            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private boolean isCacheable() {
+            HttpHeaders headers = getHeaders();
+            if (!HttpStatus.OK.equals(getStatusCode()))
+                return false;
+            if (headers.getContentLength() > maxEntryBytes)
+                return false;
+            // the key ignores Accept-Encoding, so an encoded body could reach a client that cannot decode it
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || headers.getVary().contains("*"))
+                return false;
+            // JSON only: not the NDJSON or event streams, nor binary bodies such as the patient export
+            MediaType contentType = headers.getContentType();
+            if (contentType == null || !(contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || "json".equals(contentType.getSubtypeSuffix())))
+                return false;
+            String cacheControl = headers.getCacheControl();
+            return cacheControl == null || !cacheControl.contains(CacheControl.noStore().getHeaderValue());
+        }
+    }
+
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -5,32 +5,80 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import microservice.appointmentservice.services.AppointmentImportService;
 import microservice.appointmentservice.services.AppointmentService;
+import microservice.appointmentservice.dto.BulkResultDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import microservice.appointmentservice.services.PatientLookupService;
+import microservice.appointmentservice.services.KnownPatientService;
+import microservice.appointmentservice.services.PatientIdIndex;
+import microservice.appointmentservice.models.KnownPatient;
 import microservice.appointmentservice.models.Appointment;
-import microservice.appointmentservice.repositories.IAppointmentRepository;
 import microservice.appointmentservice.dto.AppointmentDTO;
 import microservice.appointmentservice.dto.PatientDTO;
+import microservice.appointmentservice.exceptions.PatientNotFoundException;
 import microservice.appointmentservice.exceptions.PatientServiceUnavailableException;
+import microservice.appointmentservice.exceptions.SchedulingConflictException;
+import microservice.appointmentservice.exceptions.VersionConflictException;
+import microservice.appointmentservice.dto.AvailableSlotDTO;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import microservice.appointmentservice.dto.AppointmentCursor;
+import microservice.appointmentservice.dto.AppointmentDayCountDTO;
 import feign.FeignException;
 
 @RestController
 @RequestMapping("/api/v1/appointments")
 public class AppointmentServiceController {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_AVAILABLE_SLOTS = 50;
+    private static final int MAX_CALENDAR_DAYS = 366;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AppointmentService appointmentService;
     private final PatientLookupService patientLookupService;
-    private final IAppointmentRepository appointmentRepository;
+    private final KnownPatientService knownPatientService;
+    private final PatientIdIndex patientIdIndex;
+    private final AppointmentImportService appointmentImportService;
+    private final BulkRequestReader bulkRequestReader;
+    private final ObjectMapper objectMapper;
+    private final int bulkChunkSize;
 
     public AppointmentServiceController(AppointmentService appointmentService,
-            PatientLookupService patientLookupService, IAppointmentRepository appointmentRepository) {
+            PatientLookupService patientLookupService, KnownPatientService knownPatientService,
+            PatientIdIndex patientIdIndex, AppointmentImportService appointmentImportService, BulkRequestReader bulkRequestReader,
+            ObjectMapper objectMapper, @Value("${bulk.chunk-size:500}") int bulkChunkSize) {
         this.appointmentService = appointmentService;
         this.patientLookupService = patientLookupService;
-        this.appointmentRepository = appointmentRepository;
+        this.knownPatientService = knownPatientService;
+        this.patientIdIndex = patientIdIndex;
+        this.appointmentImportService = appointmentImportService;
+        this.bulkRequestReader = bulkRequestReader;
+        this.objectMapper = objectMapper;
+        if (bulkChunkSize < 1)
+            throw new IllegalArgumentException("bulk.chunk-size must be positive: " + bulkChunkSize);
+        this.bulkChunkSize = bulkChunkSize;
     }
 
     @PostMapping()
@@ -43,80 +91,211 @@ public class AppointmentServiceController {
             }
 
             Appointment appointment = appointmentService.createAppointment(appointmentDTO);
-            return ResponseEntity.ok(
-                    AppointmentDTO.builder()
-                            .id(appointment.getId())
-                            .date(appointment.getDate())
-                            .time(appointment.getTime())
-                            .patientId(appointment.getPatientId())
-                            .build());
+            return ResponseEntity.ok().eTag(ETags.of(appointment.getVersion())).body(toAppointmentDTO(appointment));
         } catch (PatientServiceUnavailableException e) {
             return ResponseEntity.status(503).build();
+        } catch (SchedulingConflictException e) {
+            return ResponseEntity.status(409).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         }
     }
 
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BulkResultDTO> createAppointments(HttpServletRequest request) {
+        BulkResultDTO result = new BulkResultDTO();
+        try {
+            bulkRequestReader.read(request, AppointmentDTO.class, bulkChunkSize, result,
+                    chunk -> appointmentImportService.importChunk(chunk, result));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Without filters, pages through all appointments by id using the numeric
+     * cursor. With from, to or patientId, returns the matching appointments in
+     * (date, time, id) order and the cursor is an opaque token.
+     */
     @GetMapping()
-    public ResponseEntity<List<AppointmentDTO>> getAppointments() {
-        var appointments = appointmentService.getAllAppointments().stream().map(appointment -> AppointmentDTO.builder()
-                .id(appointment.getId())
-                .date(appointment.getDate())
-                .time(appointment.getTime())
-                .patientId(appointment.getPatientId())
-                .build()).toList();
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<List<AppointmentDTO>> getAppointments(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long patientId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean ranged = from != null || to != null || patientId != null;
+        List<Appointment> appointments;
+        try {
+            appointments = ranged
+                    ? appointmentService.getAppointmentsInRange(from, to, patientId,
+                            cursor != null ? AppointmentCursor.decode(cursor) : null, pageSize + 1)
+                    : appointmentService.getAppointmentsAfter(cursor != null ? Long.valueOf(cursor) : null,
+                            pageSize + 1);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (appointments.size() > pageSize) {
+            appointments = appointments.subList(0, pageSize);
+            Appointment last = appointments.get(pageSize - 1);
+            response.header(NEXT_CURSOR_HEADER, ranged
+                    ? new AppointmentCursor(last.getDate(), last.getTime(), last.getId()).encode()
+                    : String.valueOf(last.getId()));
+        }
+        return response.body(appointments.stream().map(this::toAppointmentDTO).toList());
+    }
+
+    @GetMapping("/calendar")
+    public ResponseEntity<List<AppointmentDayCountDTO>> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long patientId) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS)
+            return ResponseEntity.badRequest().body(null);
+
+        return ResponseEntity.ok(appointmentService.countAppointmentsByDay(from, to, patientId).stream()
+                .map(day -> AppointmentDayCountDTO.builder()
+                        .date(day.getDate())
+                        .count(day.getCount())
+                        .build())
+                .toList());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAppointments() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .setRootValueSeparator(null);
+            appointmentService.streamAllAppointments(appointment -> {
+                try {
+                    generator.writeObject(toAppointmentDTO(appointment));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailableSlotDTO>> getAvailability(@RequestParam String resourceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) Integer durationMinutes,
+            @RequestParam(defaultValue = "5") int count) {
+        int duration = durationMinutes != null ? durationMinutes : appointmentService.getDefaultDurationMinutes();
+        int slotCount = Math.max(1, Math.min(count, MAX_AVAILABLE_SLOTS));
+        try {
+            List<AvailableSlotDTO> slots = appointmentService
+                    .findFreeSlots(resourceId, from != null ? from : LocalDateTime.now(), duration, slotCount)
+                    .stream()
+                    .map(start -> AvailableSlotDTO.builder()
+                            .resourceId(resourceId)
+                            .date(start.toLocalDate())
+                            .time(start.toLocalTime())
+                            .durationMinutes(duration)
+                            .build())
+                    .toList();
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<List<AppointmentDTO>> getAppointmentsByPatientId(@PathVariable Long patientId) {
         try {
-            var patientExists = this.isPatientExists(patientId);
-            if (!patientExists)
-                return ResponseEntity.badRequest().body(null);
+            boolean indexed = patientIdIndex.contains(patientId);
+            CompletableFuture<PatientDTO> patientLookup = patientLookupService.getPatientByIdAsync(patientId);
+            List<Appointment> patientAppointments = appointmentService.getAppointmentByPatientId(patientId);
+            // an indexed patient exists, so its details are best effort
+            PatientDTO patient = indexed ? patientLookup.exceptionally(failure -> null).join()
+                    : PatientLookupService.join(patientLookup);
 
-            PatientDTO patient = patientLookupService.getPatientById(patientId);
-
-            var appointments = appointmentService.getAppointmentByPatientId(patientId).stream()
+            var appointments = patientAppointments.stream()
                     .map(appointment -> AppointmentDTO.builder()
                             .id(appointment.getId())
                             .date(appointment.getDate())
                             .time(appointment.getTime())
+                            .durationMinutes(appointment.getDurationMinutes())
+                            .resourceId(appointment.getResourceId())
+                            .version(appointment.getVersion())
                             .patient(patient)
                             .build())
                     .toList();
             return ResponseEntity.ok(appointments);
+        } catch (PatientNotFoundException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (PatientServiceUnavailableException e) {
             return ResponseEntity.status(503).build();
         }
     }
 
+    /**
+     * Sets the non-null fields of the request, as PATCH does. With If-Match,
+     * updates only if the appointment is still at that ETag, 412 otherwise.
+     * A patientId given must be an existing patient, as on creation.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<AppointmentDTO> updateAppointment(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody AppointmentDTO requestBody) {
         try {
-            var appointment = appointmentRepository.getReferenceById(id);
-
-            if (requestBody.getDate() != null)
-                appointment.setDate(requestBody.getDate());
-            if (requestBody.getTime() != null)
-                appointment.setTime(requestBody.getTime());
-            if (requestBody.getPatientId() != null)
-                appointment.setPatientId(requestBody.getPatientId());
-
-            appointmentRepository.save(appointment);
-
-            return ResponseEntity.ok(AppointmentDTO.builder()
-                    .id(appointment.getId())
-                    .date(appointment.getDate())
-                    .time(appointment.getTime())
-                    .patientId(appointment.getPatientId())
-                    .build());
-        } catch (Exception e) {
+            if (requestBody.getPatientId() != null && !isPatientExists(requestBody.getPatientId()))
+                return ResponseEntity.badRequest().body(null);
+
+            var appointment = appointmentService.updateAppointment(id, requestBody, ETags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(ETags.of(appointment.getVersion())).body(toAppointmentDTO(appointment));
+        } catch (VersionConflictException e) {
+            // a failed If-Match is a failed precondition, a lost race without one a plain conflict
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+        } catch (SchedulingConflictException e) {
+            return ResponseEntity.status(409).build();
+        } catch (PatientServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
         }
+    }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<AppointmentDTO> patchAppointment(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody AppointmentDTO requestBody) {
+        return updateAppointment(id, ifMatch, requestBody);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAppointment(@PathVariable Long id) {
+        appointmentService.deleteAppointment(id);
+        return ResponseEntity.noContent().build();
     }
 
     private boolean isPatientExists(Long patientId) {
+        // a miss may be a patient created since the last change was delivered
+        if (patientIdIndex.contains(patientId))
+            return true;
+        KnownPatient known = knownPatientService.find(patientId);
+        if (known != null)
+            return !known.isDeleted();
         return patientLookupService.patientExists(patientId);
     }
+
+    private AppointmentDTO toAppointmentDTO(Appointment appointment) {
+        return AppointmentDTO.builder()
+                .id(appointment.getId())
+                .date(appointment.getDate())
+                .time(appointment.getTime())
+                .patientId(appointment.getPatientId())
+                .durationMinutes(appointment.getDurationMinutes())
+                .resourceId(appointment.getResourceId())
+                .version(appointment.getVersion())
+                .build();
+    }
 }
@@ -0,0 +1,53 @@
+package microservice.appointmentservice.controllers;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import microservice.appointmentservice.dto.PatientChangeEventDTO;
+import microservice.appointmentservice.services.AppointmentService;
+import microservice.appointmentservice.services.KnownPatientService;
+import microservice.appointmentservice.services.LastKnownPatientStore;
+import microservice.appointmentservice.services.PatientCache;
+import microservice.appointmentservice.services.PatientIdIndex;
+
+/** Receives batches of patient changes relayed from the patient-service outbox. */
+@RestController
+@RequestMapping("/internal/patient-changes")
+public class PatientChangeController {
+    private final KnownPatientService knownPatientService;
+    private final AppointmentService appointmentService;
+    private final PatientCache patientCache;
+    private final LastKnownPatientStore lastKnownPatientStore;
+    private final PatientIdIndex patientIdIndex;
+
+    public PatientChangeController(KnownPatientService knownPatientService, AppointmentService appointmentService,
+            PatientCache patientCache, LastKnownPatientStore lastKnownPatientStore, PatientIdIndex patientIdIndex) {
+        this.knownPatientService = knownPatientService;
+        this.appointmentService = appointmentService;
+        this.patientCache = patientCache;
+        this.lastKnownPatientStore = lastKnownPatientStore;
+        this.patientIdIndex = patientIdIndex;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> onPatientsChanged(@RequestBody List<PatientChangeEventDTO> events) {
+        if (events == null || events.stream().anyMatch(event -> event == null || event.getPatientId() == null
+                || event.getSequence() == null))
+            return ResponseEntity.badRequest().build();
+
+        knownPatientService.apply(events, event -> {
+            patientCache.invalidate(event.getPatientId());
+            patientIdIndex.apply(event);
+            if ("DELETED".equals(event.getChangeType())) {
+                lastKnownPatientStore.remove(event.getPatientId());
+                appointmentService.deleteAppointmentsOfPatient(event.getPatientId());
+            }
+        });
+        return ResponseEntity.noContent().build();
+    }
+}
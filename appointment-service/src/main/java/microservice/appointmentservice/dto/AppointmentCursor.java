@@ -0,0 +1,35 @@
+package microservice.appointmentservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a (date, time, id) ordered listing, exchanged with clients as
+ * an opaque token.
+ */
+public record AppointmentCursor(LocalDate date, LocalTime time, Long id) {
+
+    public static AppointmentCursor before(LocalDate date) {
+        return new AppointmentCursor(date, LocalTime.MIN, 0L);
+    }
+
+    public String encode() {
+        String raw = date + "|" + time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AppointmentCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3)
+                throw new IllegalArgumentException("Malformed cursor");
+            return new AppointmentCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]),
+                    Long.valueOf(parts[2]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
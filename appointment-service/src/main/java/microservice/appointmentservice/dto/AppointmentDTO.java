@@ -22,4 +22,10 @@ public class AppointmentDTO {
     private PatientDTO patient;
 
     private Long patientId;
+
+    private Integer durationMinutes;
+
+    private String resourceId;
+
+    private Long version;
 }
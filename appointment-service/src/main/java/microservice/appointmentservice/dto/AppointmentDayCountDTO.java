@@ -0,0 +1,17 @@
+package microservice.appointmentservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+public class AppointmentDayCountDTO {
+    private LocalDate date;
+
+    private long count;
+}
@@ -0,0 +1,22 @@
+package microservice.appointmentservice.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+public class AvailableSlotDTO {
+    private String resourceId;
+
+    private LocalDate date;
+
+    private LocalTime time;
+
+    private Integer durationMinutes;
+}
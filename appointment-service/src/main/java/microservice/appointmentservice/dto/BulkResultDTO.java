@@ -0,0 +1,25 @@
+package microservice.appointmentservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkResultDTO {
+    private int received;
+    private List<Long> createdIds = new ArrayList<>();
+    private List<BulkRowErrorDTO> errors = new ArrayList<>();
+
+    public int getCreated() {
+        return createdIds.size();
+    }
+
+    public void addError(int index, String message) {
+        errors.add(new BulkRowErrorDTO(index, message));
+    }
+}
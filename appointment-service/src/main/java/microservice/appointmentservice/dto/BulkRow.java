@@ -0,0 +1,4 @@
+package microservice.appointmentservice.dto;
+
+public record BulkRow<T>(int index, T value) {
+}
@@ -0,0 +1,17 @@
+package microservice.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowErrorDTO {
+    private int index;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package microservice.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientChangeEventDTO {
+    private Long sequence;
+    private Long patientId;
+    private String changeType;
+}
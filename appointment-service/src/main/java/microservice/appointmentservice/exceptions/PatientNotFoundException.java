@@ -0,0 +1,7 @@
+package microservice.appointmentservice.exceptions;
+
+public class PatientNotFoundException extends RuntimeException {
+    public PatientNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package microservice.appointmentservice.exceptions;
+
+public class SchedulingConflictException extends RuntimeException {
+    public SchedulingConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package microservice.appointmentservice.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import lombok.Builder;
@@ -14,6 +18,10 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_appointment_date_time", columnList = "date, time, id"),
+        @Index(name = "idx_appointment_patient_date", columnList = "patient_id, date, time, id")
+})
 @Builder
 @Getter
 @Setter
@@ -21,7 +29,8 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "date")
@@ -32,4 +41,14 @@ public class Appointment {
 
     @Column(name = "patientId")
     private Long patientId;
+
+    @Column(name = "durationMinutes")
+    private Integer durationMinutes;
+
+    @Column(name = "resourceId")
+    private String resourceId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package microservice.appointmentservice.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Local copy of a patient's state as last received from the patient change
+ * feed. Deleted patients are kept so late events cannot bring them back.
+ */
+@Entity
+@Table(name = "known_patient")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnownPatient {
+    @Id
+    @Column(name = "patientId")
+    private Long patientId;
+
+    @Column(name = "lastSequence", nullable = false)
+    private Long lastSequence;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+}
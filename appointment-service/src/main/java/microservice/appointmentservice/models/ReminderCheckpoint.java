@@ -0,0 +1,31 @@
+package microservice.appointmentservice.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Single row: every reminder due before dispatchedUpTo (epoch milliseconds)
+ * has been delivered, so a restart only reloads the later ones.
+ */
+@Entity
+@Table(name = "reminder_checkpoint")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderCheckpoint {
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "dispatchedUpTo", nullable = false)
+    private Long dispatchedUpTo;
+}
@@ -0,0 +1,43 @@
+package microservice.appointmentservice.reminders;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Stand-in sink appending each reminder as a JSON line to a file. */
+@Component
+@ConditionalOnProperty(name = "reminders.sink", havingValue = "file")
+public class FileReminderSink implements ReminderSink {
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileReminderSink(ObjectMapper objectMapper,
+            @Value("${reminders.file.path:reminders.ndjson}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public void deliver(List<Reminder> reminders) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Reminder reminder : reminders) {
+                writer.write(objectMapper.writeValueAsString(reminder));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
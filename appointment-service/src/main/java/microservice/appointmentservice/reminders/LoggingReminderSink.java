@@ -0,0 +1,22 @@
+package microservice.appointmentservice.reminders;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Stand-in sink: one line per batch, the reminders themselves at debug. */
+@Component
+@ConditionalOnProperty(name = "reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingReminderSink.class);
+
+    @Override
+    public void deliver(List<Reminder> reminders) {
+        logger.info("Sending {} appointment reminders", reminders.size());
+        if (logger.isDebugEnabled())
+            reminders.forEach(reminder -> logger.debug("Reminder {}", reminder));
+    }
+}
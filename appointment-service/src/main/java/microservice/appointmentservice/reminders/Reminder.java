@@ -0,0 +1,9 @@
+package microservice.appointmentservice.reminders;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/** A reminder due offset before the appointment starts. */
+public record Reminder(Long appointmentId, Long patientId, String resourceId, LocalDateTime appointmentAt,
+        Duration offset) {
+}
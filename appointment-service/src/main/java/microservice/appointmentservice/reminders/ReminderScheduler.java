@@ -0,0 +1,229 @@
+package microservice.appointmentservice.reminders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import microservice.appointmentservice.models.Appointment;
+import microservice.appointmentservice.models.ReminderCheckpoint;
+import microservice.appointmentservice.repositories.IAppointmentRepository;
+import microservice.appointmentservice.repositories.IReminderCheckpointRepository;
+
+/**
+ * Sends a reminder at each configured offset before every upcoming
+ * appointment. Reminders wait in a timing wheel, keyed by appointment id and
+ * offset, and one thread delivers those due each tick in batches. A
+ * rescheduled or deleted appointment is not removed from the wheel: each
+ * reminder is checked against the database when due and dropped if the
+ * appointment no longer starts at the time it was scheduled for.
+ *
+ * At startup the wheel is refilled from the upcoming appointments. Reminders
+ * due while the service was down are sent then, if their appointment has not
+ * started, as the checkpoint records how far delivery had got.
+ */
+@Component
+public class ReminderScheduler implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+    private static final int CHECKPOINT_ID = 1;
+
+    private final IAppointmentRepository appointmentRepository;
+    private final IReminderCheckpointRepository checkpointRepository;
+    private final ReminderSink sink;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Duration> offsets;
+    private final Duration tick;
+    private final int batchSize;
+    private final Clock clock;
+    private final Counter sent;
+    // guarded by itself
+    private final TimingWheel wheel;
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reminder-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReminderScheduler(IAppointmentRepository appointmentRepository,
+            IReminderCheckpointRepository checkpointRepository, ReminderSink sink, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${reminders.offsets:24h,1h}") List<Duration> offsets,
+            @Value("${reminders.tick:1s}") Duration tick,
+            @Value("${reminders.wheel-size:64}") int wheelSize,
+            @Value("${reminders.batch-size:500}") int batchSize,
+            @Value("${reminders.time-zone:}") String timeZone) {
+        this.appointmentRepository = appointmentRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.sink = sink;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.offsets = List.copyOf(offsets);
+        this.tick = tick;
+        this.batchSize = batchSize;
+        this.clock = Clock.system(timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone));
+        this.wheel = new TimingWheel(tick.toMillis(), wheelSize, clock.millis());
+        this.sent = Counter.builder("reminders.sent").register(meterRegistry);
+        Gauge.builder("reminders.pending", this, ReminderScheduler::pending).register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        dispatcher.execute(this::load);
+        dispatcher.scheduleWithFixedDelay(this::dispatchDue, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+    }
+
+    /** Schedules the reminders of a booked or rescheduled appointment still ahead. */
+    public void schedule(Appointment appointment) {
+        schedule(appointment, clock.millis());
+    }
+
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void schedule(Appointment appointment, long notBefore) {
+        Long startsAt = startsAt(appointment);
+        if (startsAt == null)
+            return;
+        synchronized (wheel) {
+            for (int i = 0; i < offsets.size(); i++) {
+                long dueAt = startsAt - offsets.get(i).toMillis();
+                if (dueAt >= notBefore)
+                    wheel.add(appointment.getId() * offsets.size() + i, dueAt);
+            }
+        }
+    }
+
+    private void load() {
+        try {
+            long startedAt = System.nanoTime();
+            long now = clock.millis();
+            long notBefore = checkpointRepository.findById(CHECKPOINT_ID)
+                    .map(ReminderCheckpoint::getDispatchedUpTo)
+                    .orElse(now);
+            AtomicLong loaded = new AtomicLong();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Appointment> appointments = appointmentRepository
+                        .streamByDateGreaterThanEqual(LocalDate.now(clock))) {
+                    appointments.forEach(appointment -> {
+                        Long startsAt = startsAt(appointment);
+                        if (startsAt != null && startsAt > now) {
+                            schedule(appointment, notBefore);
+                            loaded.incrementAndGet();
+                        }
+                        entityManager.detach(appointment);
+                    });
+                }
+            });
+            logger.info("Loaded reminders of {} upcoming appointments in {} ms, {} pending", loaded.get(),
+                    (System.nanoTime() - startedAt) / 1_000_000, pending());
+        } catch (RuntimeException e) {
+            logger.error("Could not load appointment reminders", e);
+        }
+    }
+
+    private void dispatchDue() {
+        try {
+            long now = clock.millis();
+            long[] due;
+            long upTo;
+            synchronized (wheel) {
+                due = wheel.advance(now);
+                upTo = wheel.currentTime();
+            }
+            if (due.length == 0)
+                return;
+
+            boolean delivered = true;
+            Set<Long> seen = new HashSet<>();
+            for (int from = 0; from < due.length; from += 2 * batchSize) {
+                int to = Math.min(due.length, from + 2 * batchSize);
+                delivered &= deliver(due, from, to, now, seen);
+            }
+            // a failed batch is back in the wheel and due again, so the checkpoint must not pass it
+            if (delivered)
+                checkpointRepository.save(ReminderCheckpoint.builder()
+                        .id(CHECKPOINT_ID)
+                        .dispatchedUpTo(upTo)
+                        .build());
+        } catch (RuntimeException e) {
+            logger.warn("Could not dispatch appointment reminders: {}", e.getMessage());
+        }
+    }
+
+    /** Delivers the (key, dueAt) pairs in due[from, to) still valid; false if the sink failed. */
+    private boolean deliver(long[] due, int from, int to, long now, Set<Long> seen) {
+        List<Long> appointmentIds = new ArrayList<>();
+        for (int i = from; i < to; i += 2)
+            appointmentIds.add(due[i] / offsets.size());
+        Map<Long, Appointment> appointments = appointmentRepository.findAllById(appointmentIds).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+
+        List<Reminder> reminders = new ArrayList<>();
+        for (int i = from; i < to; i += 2) {
+            long key = due[i];
+            Appointment appointment = appointments.get(key / offsets.size());
+            Duration offset = offsets.get((int) (key % offsets.size()));
+            Long startsAt = appointment != null ? startsAt(appointment) : null;
+            // deleted, moved, already started, or a duplicate from a reschedule back to the same time
+            if (startsAt == null || startsAt - offset.toMillis() != due[i + 1] || startsAt <= now || !seen.add(key))
+                continue;
+            reminders.add(new Reminder(appointment.getId(), appointment.getPatientId(), appointment.getResourceId(),
+                    appointment.getDate().atTime(appointment.getTime()), offset));
+        }
+        if (reminders.isEmpty())
+            return true;
+
+        try {
+            sink.deliver(reminders);
+            sent.increment(reminders.size());
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Could not deliver {} appointment reminders, retrying: {}", reminders.size(), e.getMessage());
+            synchronized (wheel) {
+                for (int i = from; i < to; i += 2)
+                    wheel.add(due[i], due[i + 1]);
+            }
+            return false;
+        }
+    }
+
+    private Long startsAt(Appointment appointment) {
+        if (appointment.getDate() == null || appointment.getTime() == null)
+            return null;
+        return appointment.getDate().atTime(appointment.getTime()).atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,11 @@
+package microservice.appointmentservice.reminders;
+
+import java.util.List;
+
+/**
+ * Where due reminders go. A batch that throws is retried on the next tick,
+ * so a sink may see a reminder more than once.
+ */
+public interface ReminderSink {
+    void deliver(List<Reminder> reminders);
+}
@@ -0,0 +1,136 @@
+package microservice.appointmentservice.reminders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of (key, due time) pairs, times in epoch
+ * milliseconds. Level k has wheelSize buckets of tickMs * wheelSize^k each;
+ * an entry sits in the lowest level whose span covers it and moves down a
+ * level when its bucket comes round, so adding is O(1) and a tick only
+ * touches the entries due and those cascading. Buckets are packed long
+ * arrays, 16 bytes per entry, allocated while they hold entries.
+ * Not thread-safe.
+ */
+final class TimingWheel {
+    private static final long[] NONE = new long[0];
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Bucket[]> levels = new ArrayList<>();
+    private final Bucket overdue = new Bucket();
+    // start of the next level-0 bucket to expire
+    private long currentTime;
+    private int size;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    void add(long key, long dueAt) {
+        size++;
+        if (dueAt < currentTime) {
+            overdue.add(key, dueAt);
+            return;
+        }
+        long levelTick = tickMs;
+        for (int level = 0;; level++) {
+            long levelStart = currentTime - Math.floorMod(currentTime, levelTick);
+            // the top level takes whatever is left, far beyond any real date
+            boolean top = levelTick > Long.MAX_VALUE / wheelSize;
+            if (top || dueAt - levelStart < levelTick * wheelSize) {
+                bucket(level, Math.floorDiv(dueAt, levelTick)).add(key, dueAt);
+                return;
+            }
+            levelTick *= wheelSize;
+        }
+    }
+
+    /**
+     * Moves the wheel up to now and returns the entries due by then as
+     * (key, dueAt) pairs. An entry is never returned before its due time and
+     * at most one tick after it.
+     */
+    long[] advance(long now) {
+        Bucket due = new Bucket();
+        overdue.drainTo(due);
+        while (currentTime + tickMs <= now) {
+            // top down, so an entry cascaded into a bucket now expiring cascades again
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long levelTick = levelTick(level);
+                if (Math.floorMod(currentTime, levelTick) == 0) {
+                    Bucket cascading = take(level, Math.floorDiv(currentTime, levelTick));
+                    if (cascading != null) {
+                        size -= cascading.length / 2;
+                        for (int i = 0; i < cascading.length; i += 2)
+                            add(cascading.entries[i], cascading.entries[i + 1]);
+                    }
+                }
+            }
+            Bucket expiring = take(0, Math.floorDiv(currentTime, tickMs));
+            if (expiring != null)
+                expiring.drainTo(due);
+            currentTime += tickMs;
+        }
+        size -= due.length / 2;
+        return due.length == 0 ? NONE : Arrays.copyOf(due.entries, due.length);
+    }
+
+    /** Everything before this time has been returned by advance. */
+    long currentTime() {
+        return currentTime;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private long levelTick(int level) {
+        long levelTick = tickMs;
+        for (int i = 0; i < level; i++)
+            levelTick *= wheelSize;
+        return levelTick;
+    }
+
+    private Bucket bucket(int level, long tickIndex) {
+        while (levels.size() <= level)
+            levels.add(new Bucket[wheelSize]);
+        Bucket[] buckets = levels.get(level);
+        int slot = (int) Math.floorMod(tickIndex, (long) wheelSize);
+        if (buckets[slot] == null)
+            buckets[slot] = new Bucket();
+        return buckets[slot];
+    }
+
+    private Bucket take(int level, long tickIndex) {
+        if (levels.size() <= level)
+            return null;
+        Bucket[] buckets = levels.get(level);
+        int slot = (int) Math.floorMod(tickIndex, (long) wheelSize);
+        Bucket bucket = buckets[slot];
+        buckets[slot] = null;
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private long[] entries = new long[8];
+        private int length;
+
+        private void add(long key, long dueAt) {
+            if (length == entries.length)
+                entries = Arrays.copyOf(entries, length * 2);
+            entries[length++] = key;
+            entries[length++] = dueAt;
+        }
+
+        private void drainTo(Bucket target) {
+            for (int i = 0; i < length; i += 2)
+                target.add(entries[i], entries[i + 1]);
+            entries = new long[8];
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package microservice.appointmentservice.repositories;
+
+import java.time.LocalDate;
+
+public interface AppointmentDayCount {
+    LocalDate getDate();
+
+    long getCount();
+}
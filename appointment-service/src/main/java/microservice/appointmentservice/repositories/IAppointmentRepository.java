@@ -1,12 +1,81 @@
 package microservice.appointmentservice.repositories;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
 import microservice.appointmentservice.models.Appointment;
 
 @Repository
 public interface IAppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByPatientId(Long patientId);
+
+    List<Appointment> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("""
+            select a from Appointment a
+            where a.date >= :cursorDate and a.date <= :toDate
+              and (a.date > :cursorDate or a.time > :cursorTime or (a.time = :cursorTime and a.id > :cursorId))
+            order by a.date, a.time, a.id
+            """)
+    List<Appointment> findInRangeAfter(@Param("toDate") LocalDate toDate,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorTime") LocalTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @Query("""
+            select a from Appointment a
+            where a.patientId = :patientId
+              and a.date >= :cursorDate and a.date <= :toDate
+              and (a.date > :cursorDate or a.time > :cursorTime or (a.time = :cursorTime and a.id > :cursorId))
+            order by a.date, a.time, a.id
+            """)
+    List<Appointment> findByPatientInRangeAfter(@Param("patientId") Long patientId,
+            @Param("toDate") LocalDate toDate,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorTime") LocalTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    @Query("""
+            select a.date as date, count(a) as count
+            from Appointment a
+            where a.date >= :fromDate and a.date <= :toDate
+            group by a.date
+            order by a.date
+            """)
+    List<AppointmentDayCount> countByDay(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("""
+            select a.date as date, count(a) as count
+            from Appointment a
+            where a.patientId = :patientId and a.date >= :fromDate and a.date <= :toDate
+            group by a.date
+            order by a.date
+            """)
+    List<AppointmentDayCount> countByDayForPatient(@Param("patientId") Long patientId,
+            @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Appointment> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Appointment> streamByDateGreaterThanEqual(LocalDate date);
 }
@@ -1,9 +1,15 @@
 package microservice.appointmentservice.repositories;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import feign.Response;
 import microservice.appointmentservice.dto.PatientDTO;
 
 @FeignClient(name = "patient-service")
@@ -11,4 +17,11 @@ public interface IPatientAPIRepository {
 
     @GetMapping("/api/v1/patients/{patientId}")
     PatientDTO getPatientById(@PathVariable("patientId") Long id);
+
+    @PostMapping("/api/v1/patients/batch")
+    Map<Long, PatientDTO> getPatientsByIds(@RequestBody Collection<Long> ids);
+
+    /** All patients in the binary export format; the caller reads and closes the body. */
+    @GetMapping("/api/v1/patients/export")
+    Response exportPatients();
 }
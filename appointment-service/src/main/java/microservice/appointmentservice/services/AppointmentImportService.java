@@ -0,0 +1,97 @@
+package microservice.appointmentservice.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import microservice.appointmentservice.dto.AppointmentDTO;
+import microservice.appointmentservice.dto.BulkResultDTO;
+import microservice.appointmentservice.dto.BulkRow;
+import microservice.appointmentservice.exceptions.PatientServiceUnavailableException;
+import microservice.appointmentservice.models.Appointment;
+import microservice.appointmentservice.models.KnownPatient;
+
+@Service
+public class AppointmentImportService {
+    // patient-service rejects batch lookups of more ids
+    static final int MAX_PATIENT_BATCH_SIZE = 1000;
+
+    private final AppointmentService appointmentService;
+    private final PatientLookupService patientLookupService;
+    private final KnownPatientService knownPatientService;
+    private final PatientIdIndex patientIdIndex;
+
+    public AppointmentImportService(AppointmentService appointmentService,
+            PatientLookupService patientLookupService, KnownPatientService knownPatientService,
+            PatientIdIndex patientIdIndex) {
+        this.appointmentService = appointmentService;
+        this.patientLookupService = patientLookupService;
+        this.knownPatientService = knownPatientService;
+        this.patientIdIndex = patientIdIndex;
+    }
+
+    /**
+     * Validates the patient ids of a chunk against the in-memory patient index
+     * and the change feed, and the others with batch lookups, then inserts
+     * the valid rows in one transaction (one JDBC batch). If the insert fails,
+     * the rows are retried one by one so only the offending rows are reported.
+     */
+    public void importChunk(List<BulkRow<AppointmentDTO>> chunk, BulkResultDTO result) {
+        List<Long> patientIds = chunk.stream()
+                .map(row -> row.value().getPatientId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Set<Long> existing = new HashSet<>();
+        List<Long> notIndexed = new ArrayList<>();
+        for (Long patientId : patientIds) {
+            if (patientIdIndex.contains(patientId))
+                existing.add(patientId);
+            else
+                notIndexed.add(patientId);
+        }
+        Map<Long, KnownPatient> known = knownPatientService.findAll(notIndexed);
+        known.values().stream().filter(patient -> !patient.isDeleted())
+                .forEach(patient -> existing.add(patient.getPatientId()));
+        List<Long> unknown = notIndexed.stream().filter(id -> !known.containsKey(id)).toList();
+        try {
+            for (int from = 0; from < unknown.size(); from += MAX_PATIENT_BATCH_SIZE) {
+                List<Long> batch = unknown.subList(from, Math.min(unknown.size(), from + MAX_PATIENT_BATCH_SIZE));
+                existing.addAll(patientLookupService.getPatientsByIds(batch).keySet());
+            }
+        } catch (PatientServiceUnavailableException e) {
+            chunk.forEach(row -> result.addError(row.index(), "Patient service unavailable"));
+            return;
+        }
+
+        List<BulkRow<AppointmentDTO>> valid = new ArrayList<>(chunk.size());
+        for (BulkRow<AppointmentDTO> row : chunk) {
+            Long patientId = row.value().getPatientId();
+            if (patientId != null && !existing.contains(patientId))
+                result.addError(row.index(), "Patient not found id=" + patientId);
+            else
+                valid.add(row);
+        }
+        if (valid.isEmpty())
+            return;
+
+        try {
+            List<Appointment> saved = appointmentService.createAppointments(valid.stream().map(BulkRow::value).toList());
+            saved.forEach(appointment -> result.getCreatedIds().add(appointment.getId()));
+        } catch (RuntimeException chunkError) {
+            for (BulkRow<AppointmentDTO> row : valid) {
+                try {
+                    result.getCreatedIds().add(appointmentService.createAppointment(row.value()).getId());
+                } catch (RuntimeException rowError) {
+                    result.addError(row.index(), rowError.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,54 +1,325 @@
 package microservice.appointmentservice.services;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import io.micrometer.core.annotation.Timed;
 import microservice.appointmentservice.models.Appointment;
+import microservice.appointmentservice.dto.AppointmentCursor;
 import microservice.appointmentservice.dto.AppointmentDTO;
+import microservice.appointmentservice.exceptions.SchedulingConflictException;
+import microservice.appointmentservice.exceptions.VersionConflictException;
+import microservice.appointmentservice.repositories.AppointmentDayCount;
 import microservice.appointmentservice.repositories.IAppointmentRepository;
+import microservice.appointmentservice.reminders.ReminderScheduler;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
+@Timed("service.invocations")
 public class AppointmentService {
+    private static final LocalDate FIRST_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
     private final IAppointmentRepository appointmentRepository;
+    private final EntityManager entityManager;
+    private final ScheduleIndex scheduleIndex;
+    private final ReminderScheduler reminderScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultDurationMinutes;
 
-    public AppointmentService(IAppointmentRepository appointmentRepository) {
+    public AppointmentService(IAppointmentRepository appointmentRepository, EntityManager entityManager,
+            ScheduleIndex scheduleIndex, ReminderScheduler reminderScheduler,
+            PlatformTransactionManager transactionManager,
+            @Value("${scheduling.default-duration-minutes:30}") int defaultDurationMinutes) {
         this.appointmentRepository = appointmentRepository;
+        this.entityManager = entityManager;
+        this.scheduleIndex = scheduleIndex;
+        this.reminderScheduler = reminderScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultDurationMinutes = defaultDurationMinutes;
     }
 
     public Appointment createAppointment(AppointmentDTO appointmentDTO) {
-        Appointment appointment = Appointment.builder()
-                .date(appointmentDTO.getDate())
-                .time(appointmentDTO.getTime())
-                .patientId(appointmentDTO.getPatientId())
-                .build();
-        return appointmentRepository.save(appointment);
+        return book(List.of(toAppointment(appointmentDTO))).get(0);
+    }
+
+    public List<Appointment> createAppointments(List<AppointmentDTO> appointmentDTOs) {
+        return book(appointmentDTOs.stream().map(this::toAppointment).toList());
     }
 
     public Appointment getAppointmentById(Long id) {
         return appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+                .orElseThrow(() -> new NoSuchElementException("Appointment not found"));
     }
 
     public List<Appointment> getAppointmentByPatientId(Long patientId) {
         return appointmentRepository.findByPatientId(patientId);
     }
 
-    public Appointment updateAppointment(Long id, AppointmentDTO appointmentDTO) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
-        if (appointmentDTO.getDate() != null)
-            appointment.setDate(appointmentDTO.getDate());
-        if (appointmentDTO.getTime() != null)
-            appointment.setTime(appointmentDTO.getTime());
-        if (appointmentDTO.getPatientId() != null)
-            appointment.setPatientId(appointmentDTO.getPatientId());
-        return appointmentRepository.save(appointment);
+    /**
+     * Sets the non-null fields of the request. With an expected version, fails
+     * unless the appointment is still at it. Only the changed columns are
+     * written, by an UPDATE conditional on the version read.
+     */
+    public Appointment updateAppointment(Long id, AppointmentDTO appointmentDTO, Long expectedVersion) {
+        while (true) {
+            Appointment current = getAppointmentById(id);
+            String targetResourceId = appointmentDTO.getResourceId() != null ? appointmentDTO.getResourceId()
+                    : current.getResourceId();
+
+            Appointment updated = scheduleIndex.withResourcesLocked(
+                    resourceIds(current.getResourceId(), targetResourceId), () -> {
+                        Appointment latest = getAppointmentById(id);
+                        // moved to another resource meanwhile: its lock is not held, start over
+                        if (!Objects.equals(latest.getResourceId(), current.getResourceId()))
+                            return null;
+                        if (expectedVersion != null && !expectedVersion.equals(latest.getVersion()))
+                            throw new VersionConflictException("Appointment " + id + " is at version "
+                                    + latest.getVersion() + ", not " + expectedVersion);
+
+                        // changes go to a copy: latest may be managed, and would then be flushed whole
+                        Appointment changed = copyOf(latest);
+                        if (appointmentDTO.getDate() != null)
+                            changed.setDate(appointmentDTO.getDate());
+                        if (appointmentDTO.getTime() != null)
+                            changed.setTime(appointmentDTO.getTime());
+                        if (appointmentDTO.getPatientId() != null)
+                            changed.setPatientId(appointmentDTO.getPatientId());
+                        if (appointmentDTO.getDurationMinutes() != null)
+                            changed.setDurationMinutes(appointmentDTO.getDurationMinutes());
+                        if (appointmentDTO.getResourceId() != null)
+                            changed.setResourceId(appointmentDTO.getResourceId());
+                        validate(changed);
+                        checkAvailability(changed);
+
+                        transactionTemplate.executeWithoutResult(status -> writeChanges(latest, changed));
+                        changed.setVersion(latest.getVersion() + 1);
+                        scheduleIndex.remove(latest);
+                        scheduleIndex.add(changed);
+                        // reminders for the old time are dropped when due, see ReminderScheduler
+                        if (!Objects.equals(latest.getDate(), changed.getDate())
+                                || !Objects.equals(latest.getTime(), changed.getTime()))
+                            reminderScheduler.schedule(changed);
+                        return changed;
+                    });
+            if (updated != null)
+                return updated;
+        }
     }
 
     public void deleteAppointment(Long id) {
-        appointmentRepository.deleteById(id);
+        while (true) {
+            Appointment current = appointmentRepository.findById(id).orElse(null);
+            if (current == null)
+                return;
+
+            Boolean deleted = scheduleIndex.withResourcesLocked(resourceIds(current.getResourceId()), () -> {
+                Appointment latest = appointmentRepository.findById(id).orElse(null);
+                if (latest == null)
+                    return true;
+                // moved to another resource meanwhile: its lock is not held, start over
+                if (!Objects.equals(latest.getResourceId(), current.getResourceId()))
+                    return null;
+                appointmentRepository.delete(latest);
+                scheduleIndex.remove(latest);
+                return true;
+            });
+            if (deleted != null)
+                return;
+        }
+    }
+
+    /** Deletes the appointments of a deleted patient and frees their slots. */
+    public int deleteAppointmentsOfPatient(Long patientId) {
+        while (true) {
+            List<Appointment> current = appointmentRepository.findByPatientId(patientId);
+            if (current.isEmpty())
+                return 0;
+            List<String> lockedResourceIds = current.stream().map(Appointment::getResourceId).toList();
+
+            Integer deleted = scheduleIndex.withResourcesLocked(lockedResourceIds, () -> {
+                List<Appointment> latest = appointmentRepository.findByPatientId(patientId);
+                // one was moved to another resource or booked meanwhile: its lock is not held, start over
+                if (!lockedResourceIds.containsAll(latest.stream().map(Appointment::getResourceId).toList()))
+                    return null;
+
+                transactionTemplate.executeWithoutResult(status -> appointmentRepository.deleteAllInBatch(latest));
+                latest.forEach(scheduleIndex::remove);
+                return latest.size();
+            });
+            if (deleted != null)
+                return deleted;
+        }
+    }
+
+    public List<LocalDateTime> findFreeSlots(String resourceId, LocalDateTime from, int durationMinutes, int count) {
+        if (durationMinutes <= 0)
+            throw new IllegalArgumentException("durationMinutes must be positive");
+        return scheduleIndex.findFreeSlots(resourceId, from, Duration.ofMinutes(durationMinutes), count);
+    }
+
+    public int getDefaultDurationMinutes() {
+        return defaultDurationMinutes;
     }
 
     public List<Appointment> getAllAppointments() {
         return appointmentRepository.findAll();
     }
-}
\ No newline at end of file
+
+    public List<Appointment> getAppointmentsAfter(Long cursor, int limit) {
+        return appointmentRepository.findByIdGreaterThanOrderByIdAsc(cursor != null ? cursor : 0L, Limit.of(limit));
+    }
+
+    public List<Appointment> getAppointmentsInRange(LocalDate from, LocalDate to, Long patientId,
+            AppointmentCursor cursor, int limit) {
+        LocalDate toDate = to != null ? to : LAST_DATE;
+        AppointmentCursor after = cursor != null ? cursor : AppointmentCursor.before(from != null ? from : FIRST_DATE);
+        if (patientId != null)
+            return appointmentRepository.findByPatientInRangeAfter(patientId, toDate, after.date(), after.time(),
+                    after.id(), Limit.of(limit));
+        return appointmentRepository.findInRangeAfter(toDate, after.date(), after.time(), after.id(),
+                Limit.of(limit));
+    }
+
+    public List<AppointmentDayCount> countAppointmentsByDay(LocalDate from, LocalDate to, Long patientId) {
+        if (patientId != null)
+            return appointmentRepository.countByDayForPatient(patientId, from, to);
+        return appointmentRepository.countByDay(from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllAppointments(Consumer<Appointment> consumer) {
+        try (Stream<Appointment> appointments = appointmentRepository.streamAllByOrderByIdAsc()) {
+            appointments.forEach(appointment -> {
+                consumer.accept(appointment);
+                entityManager.detach(appointment);
+            });
+        }
+    }
+
+    /**
+     * Checks the appointments against the schedule and against each other,
+     * then saves them in one transaction, all while holding the locks of their
+     * resources so no concurrent booking can slip in between.
+     */
+    private List<Appointment> book(List<Appointment> appointments) {
+        appointments.forEach(AppointmentService::validate);
+        List<String> resourceIds = appointments.stream().map(Appointment::getResourceId).toList();
+        return scheduleIndex.withResourcesLocked(resourceIds, () -> {
+            appointments.forEach(this::checkAvailability);
+            checkNoOverlap(appointments);
+            List<Appointment> saved = transactionTemplate.execute(status -> appointmentRepository.saveAll(appointments));
+            saved.forEach(scheduleIndex::add);
+            saved.forEach(reminderScheduler::schedule);
+            return saved;
+        });
+    }
+
+    private void checkAvailability(Appointment appointment) {
+        if (!isScheduled(appointment))
+            return;
+        LocalDateTime start = appointment.getDate().atTime(appointment.getTime());
+        ScheduleIndex.Booking conflict = scheduleIndex.findConflict(appointment.getResourceId(), start,
+                start.plusMinutes(appointment.getDurationMinutes()), appointment.getId());
+        if (conflict != null)
+            throw new SchedulingConflictException("Resource " + appointment.getResourceId()
+                    + " is already booked by appointment " + conflict.appointmentId());
+    }
+
+    private static void checkNoOverlap(List<Appointment> appointments) {
+        List<Appointment> scheduled = appointments.stream()
+                .filter(AppointmentService::isScheduled)
+                .sorted(Comparator.comparing(Appointment::getResourceId)
+                        .thenComparing(Appointment::getDate)
+                        .thenComparing(Appointment::getTime))
+                .toList();
+        for (int i = 1; i < scheduled.size(); i++) {
+            Appointment previous = scheduled.get(i - 1);
+            Appointment next = scheduled.get(i);
+            LocalDateTime previousEnd = previous.getDate().atTime(previous.getTime())
+                    .plusMinutes(previous.getDurationMinutes());
+            if (previous.getResourceId().equals(next.getResourceId())
+                    && previousEnd.isAfter(next.getDate().atTime(next.getTime())))
+                throw new SchedulingConflictException("Appointments overlap on resource " + next.getResourceId());
+        }
+    }
+
+    private static void validate(Appointment appointment) {
+        if (appointment.getDurationMinutes() != null && appointment.getDurationMinutes() <= 0)
+            throw new IllegalArgumentException("durationMinutes must be positive");
+    }
+
+    private static boolean isScheduled(Appointment appointment) {
+        return appointment.getResourceId() != null && appointment.getDate() != null
+                && appointment.getTime() != null && appointment.getDurationMinutes() != null;
+    }
+
+    /** Writes the columns that differ between the two, if the row is still at the version read. */
+    private void writeChanges(Appointment previous, Appointment updated) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Appointment> update = builder.createCriteriaUpdate(Appointment.class);
+        Root<Appointment> appointment = update.from(Appointment.class);
+        setIfChanged(update, appointment, "date", previous, updated, Appointment::getDate);
+        setIfChanged(update, appointment, "time", previous, updated, Appointment::getTime);
+        setIfChanged(update, appointment, "patientId", previous, updated, Appointment::getPatientId);
+        setIfChanged(update, appointment, "durationMinutes", previous, updated, Appointment::getDurationMinutes);
+        setIfChanged(update, appointment, "resourceId", previous, updated, Appointment::getResourceId);
+        Path<Long> version = appointment.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.where(builder.equal(appointment.get("id"), previous.getId()),
+                builder.equal(version, previous.getVersion()));
+
+        if (entityManager.createQuery(update).executeUpdate() == 0)
+            throw new VersionConflictException("Appointment " + previous.getId() + " was changed concurrently");
+    }
+
+    private static <T> void setIfChanged(CriteriaUpdate<Appointment> update, Root<Appointment> appointment,
+            String attribute, Appointment previous, Appointment updated, Function<Appointment, T> value) {
+        if (!Objects.equals(value.apply(previous), value.apply(updated)))
+            update.set(appointment.<T>get(attribute), value.apply(updated));
+    }
+
+    private static List<String> resourceIds(String... resourceIds) {
+        return Stream.of(resourceIds).filter(Objects::nonNull).toList();
+    }
+
+    private static Appointment copyOf(Appointment appointment) {
+        return Appointment.builder()
+                .id(appointment.getId())
+                .date(appointment.getDate())
+                .time(appointment.getTime())
+                .patientId(appointment.getPatientId())
+                .durationMinutes(appointment.getDurationMinutes())
+                .resourceId(appointment.getResourceId())
+                .version(appointment.getVersion())
+                .build();
+    }
+
+    private Appointment toAppointment(AppointmentDTO appointmentDTO) {
+        return Appointment.builder()
+                .date(appointmentDTO.getDate())
+                .time(appointmentDTO.getTime())
+                .patientId(appointmentDTO.getPatientId())
+                .durationMinutes(appointmentDTO.getDurationMinutes() != null ? appointmentDTO.getDurationMinutes()
+                        : defaultDurationMinutes)
+                .resourceId(appointmentDTO.getResourceId())
+                .build();
+    }
+}
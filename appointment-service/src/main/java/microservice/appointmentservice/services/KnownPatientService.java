@@ -0,0 +1,78 @@
+package microservice.appointmentservice.services;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import microservice.appointmentservice.dto.PatientChangeEventDTO;
+import microservice.appointmentservice.models.KnownPatient;
+import microservice.appointmentservice.repositories.IKnownPatientRepository;
+
+/**
+ * Read model of the patients seen on the patient change feed, so the write
+ * path can check a patient without calling patient-service.
+ */
+@Service
+public class KnownPatientService {
+    private static final String DELETED = "DELETED";
+
+    private final IKnownPatientRepository knownPatientRepository;
+
+    public KnownPatientService(IKnownPatientRepository knownPatientRepository) {
+        this.knownPatientRepository = knownPatientRepository;
+    }
+
+    /** Returns null for a patient the feed has not mentioned yet. */
+    public KnownPatient find(Long patientId) {
+        return knownPatientRepository.findById(patientId).orElse(null);
+    }
+
+    public Map<Long, KnownPatient> findAll(Collection<Long> patientIds) {
+        return knownPatientRepository.findAllById(patientIds).stream()
+                .collect(Collectors.toMap(KnownPatient::getPatientId, Function.identity()));
+    }
+
+    /**
+     * Applies a batch of changes in sequence order and returns how many were
+     * new. A change at or below the sequence already recorded for its patient
+     * is a duplicate and is skipped, except a deletion, which always wins:
+     * sequences are assigned before commit, so an update can be numbered
+     * after the deletion that followed it. The handler sees each new change
+     * before it is recorded, so a failed batch is redelivered and handled
+     * again; handlers must be idempotent.
+     */
+    public int apply(List<PatientChangeEventDTO> events, Consumer<PatientChangeEventDTO> handler) {
+        Map<Long, KnownPatient> known = new HashMap<>(
+                findAll(events.stream().map(PatientChangeEventDTO::getPatientId).toList()));
+        Map<Long, KnownPatient> changed = new LinkedHashMap<>();
+        for (PatientChangeEventDTO event : events.stream()
+                .sorted(Comparator.comparing(PatientChangeEventDTO::getSequence))
+                .toList()) {
+            boolean deletion = DELETED.equals(event.getChangeType());
+            KnownPatient patient = known.get(event.getPatientId());
+            if (patient != null && (patient.isDeleted()
+                    || (!deletion && patient.getLastSequence() >= event.getSequence())))
+                continue;
+
+            handler.accept(event);
+            if (patient == null) {
+                patient = KnownPatient.builder().patientId(event.getPatientId()).build();
+                known.put(event.getPatientId(), patient);
+            }
+            patient.setLastSequence(Math.max(event.getSequence(),
+                    patient.getLastSequence() != null ? patient.getLastSequence() : 0L));
+            patient.setDeleted(deletion);
+            changed.put(patient.getPatientId(), patient);
+        }
+        knownPatientRepository.saveAll(changed.values());
+        return changed.size();
+    }
+}
@@ -0,0 +1,123 @@
+package microservice.appointmentservice.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import microservice.appointmentservice.dto.PatientDTO;
+import microservice.appointmentservice.exceptions.PatientNotFoundException;
+import microservice.appointmentservice.repositories.IPatientAPIRepository;
+
+/**
+ * Coalesces concurrent single-id patient lookups into one call to the
+ * patient-service batch endpoint. Lookups arriving within the batching window
+ * (or until the batch is full) share a single round trip, which runs in the
+ * trace of the lookup that opened the batch.
+ */
+@Component
+public class PatientBatchLoader {
+    private final IPatientAPIRepository patientAPIRepository;
+    private final PatientServiceGuard patientServiceGuard;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<PatientDTO>> pending = new HashMap<>();
+    private ContextSnapshot pendingContext;
+
+    public PatientBatchLoader(IPatientAPIRepository patientAPIRepository, PatientServiceGuard patientServiceGuard,
+            @Value("${patient-lookup.batch.window-ms:5}") long windowMillis,
+            @Value("${patient-lookup.batch.max-size:100}") int maxBatchSize,
+            @Value("${patient-lookup.batch.dispatch-threads:4}") int dispatchThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.patientAPIRepository = patientAPIRepository;
+        this.patientServiceGuard = patientServiceGuard;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.dispatcher = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(dispatchThreads);
+    }
+
+    public CompletableFuture<PatientDTO> load(Long patientId) {
+        CompletableFuture<PatientDTO> future;
+        Map<Long, CompletableFuture<PatientDTO>> fullBatch = null;
+        ContextSnapshot fullBatchContext = null;
+
+        synchronized (lock) {
+            future = pending.get(patientId);
+            if (future != null)
+                return future;
+
+            future = new CompletableFuture<>();
+            if (pending.isEmpty()) {
+                pendingContext = contextSnapshotFactory.captureAll();
+                scheduler.schedule(() -> dispatcher.execute(this::flush), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            pending.put(patientId, future);
+
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = pending;
+                fullBatchContext = pendingContext;
+                pending = new HashMap<>();
+            }
+        }
+
+        if (fullBatch != null) {
+            Map<Long, CompletableFuture<PatientDTO>> batch = fullBatch;
+            ContextSnapshot context = fullBatchContext;
+            dispatcher.execute(() -> dispatch(batch, context));
+        }
+        return future;
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<PatientDTO>> batch;
+        ContextSnapshot context;
+        synchronized (lock) {
+            if (pending.isEmpty())
+                return;
+            batch = pending;
+            context = pendingContext;
+            pending = new HashMap<>();
+        }
+        dispatch(batch, context);
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<PatientDTO>> batch, ContextSnapshot context) {
+        Map<Long, PatientDTO> patients;
+        try (ContextSnapshot.Scope scope = context.setThreadLocals()) {
+            patients = patientServiceGuard.call(() -> patientAPIRepository.getPatientsByIds(batch.keySet()));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+
+        batch.forEach((patientId, future) -> {
+            PatientDTO patient = patients != null ? patients.get(patientId) : null;
+            if (patient != null)
+                future.complete(patient);
+            else
+                future.completeExceptionally(new PatientNotFoundException("Patient not found id=" + patientId));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        dispatcher.shutdown();
+    }
+}
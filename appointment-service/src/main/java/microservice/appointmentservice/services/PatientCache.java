@@ -0,0 +1,45 @@
+package microservice.appointmentservice.services;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import microservice.appointmentservice.dto.PatientDTO;
+
+/**
+ * Bounded near cache of patients fetched from patient-service. Entries expire
+ * after a TTL and are invalidated early when patient-service notifies a change.
+ */
+@Component
+public class PatientCache {
+    private final Cache<Long, PatientDTO> cache;
+
+    public PatientCache(MeterRegistry meterRegistry,
+            @Value("${patient-cache.ttl:60s}") Duration ttl,
+            @Value("${patient-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "patients");
+    }
+
+    public PatientDTO get(Long patientId) {
+        return cache.getIfPresent(patientId);
+    }
+
+    public void put(PatientDTO patient) {
+        cache.put(patient.getId(), patient);
+    }
+
+    public void invalidate(Long patientId) {
+        cache.invalidate(patientId);
+    }
+}
@@ -0,0 +1,164 @@
+package microservice.appointmentservice.services;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import feign.Response;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import microservice.appointmentservice.dto.PatientChangeEventDTO;
+import microservice.appointmentservice.repositories.IPatientAPIRepository;
+
+/**
+ * Ids of all existing patients, in memory, so checking a patient id needs no
+ * call to patient-service. Loaded in the background from the patient-service
+ * binary export at startup, then kept current by the patient change feed; changes
+ * received while loading are replayed on the loaded ids.
+ */
+@Component
+public class PatientIdIndex implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(PatientIdIndex.class);
+    // record types of the patient-service export
+    private static final int PATIENT = 1;
+    private static final int TOMBSTONE = 2;
+
+    private final IPatientAPIRepository patientAPIRepository;
+    private final int expectedSize;
+    private final Duration retryInterval;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "patient-id-index-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // guarded by lock; pendingChanges is null once loaded
+    private PatientIdSet ids = new PatientIdSet(0);
+    private List<PatientChangeEventDTO> pendingChanges = new ArrayList<>();
+
+    public PatientIdIndex(IPatientAPIRepository patientAPIRepository, MeterRegistry meterRegistry,
+            @Value("${patient-index.expected-size:100000}") int expectedSize,
+            @Value("${patient-index.retry-interval:30s}") Duration retryInterval) {
+        this.patientAPIRepository = patientAPIRepository;
+        this.expectedSize = expectedSize;
+        this.retryInterval = retryInterval;
+        Gauge.builder("patients.index.size", this, PatientIdIndex::size).register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        loader.execute(this::loadOrRetry);
+    }
+
+    @Override
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * False until loaded, and for a patient created since the last change
+     * delivered, so a miss must be confirmed elsewhere.
+     */
+    public boolean contains(Long patientId) {
+        lock.readLock().lock();
+        try {
+            return pendingChanges == null && ids.contains(patientId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void apply(PatientChangeEventDTO event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null)
+                pendingChanges.add(event);
+            apply(ids, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void loadOrRetry() {
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not load patient ids, retrying in {}: {}", retryInterval, e.getMessage());
+            loader.schedule(this::loadOrRetry, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void load() throws IOException {
+        long startedAt = System.nanoTime();
+        PatientIdSet loaded = new PatientIdSet(expectedSize);
+        try (Response response = patientAPIRepository.exportPatients();
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(response.body().asInputStream(), 64 * 1024))) {
+            if (response.status() != 200)
+                throw new IOException("patient-service answered " + response.status());
+            readIds(in, loaded);
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(event -> apply(loaded, event));
+            pendingChanges = null;
+            ids = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded {} patient ids in {} ms", loaded.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // only the id is read from each record, the rest of its payload is skipped
+    private static void readIds(DataInputStream in, PatientIdSet ids) throws IOException {
+        int type;
+        while ((type = in.read()) != -1) {
+            int length = in.readInt();
+            int read = 0;
+            if (type == PATIENT || type == TOMBSTONE) {
+                long id = in.readLong();
+                read = Long.BYTES;
+                if (type == PATIENT)
+                    ids.add(id);
+                else
+                    ids.remove(id);
+            }
+            if (in.skipBytes(length - read) != length - read)
+                throw new EOFException("Truncated patient export");
+        }
+    }
+
+    private static void apply(PatientIdSet ids, PatientChangeEventDTO event) {
+        if ("DELETED".equals(event.getChangeType()))
+            ids.remove(event.getPatientId());
+        else
+            ids.add(event.getPatientId());
+    }
+}
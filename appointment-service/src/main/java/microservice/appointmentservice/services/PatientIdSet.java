@@ -0,0 +1,93 @@
+package microservice.appointmentservice.services;
+
+/**
+ * Open-addressing hash set of positive longs: one long[] slot per entry, no
+ * boxing, so a million ids take 16 MB at most. Not thread-safe.
+ */
+final class PatientIdSet {
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+
+    PatientIdSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD < expectedSize)
+            capacity <<= 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long id) {
+        // 0 marks an empty slot
+        if (id <= 0)
+            return false;
+        for (int i = slot(id);; i = (i + 1) & mask) {
+            if (slots[i] == id)
+                return true;
+            if (slots[i] == 0)
+                return false;
+        }
+    }
+
+    boolean add(long id) {
+        if (id <= 0)
+            throw new IllegalArgumentException("Patient ids are positive: " + id);
+        int i = slot(id);
+        for (; slots[i] != 0; i = (i + 1) & mask)
+            if (slots[i] == id)
+                return false;
+        slots[i] = id;
+        if (++size > slots.length * MAX_LOAD)
+            resize(slots.length << 1);
+        return true;
+    }
+
+    boolean remove(long id) {
+        if (id <= 0)
+            return false;
+        int gap = slot(id);
+        while (slots[gap] != id) {
+            if (slots[gap] == 0)
+                return false;
+            gap = (gap + 1) & mask;
+        }
+        // shift back the following entries that may move into the gap, so probe
+        // sequences stay unbroken without tombstones
+        for (int i = (gap + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int home = slot(slots[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                slots[gap] = slots[i];
+                gap = i;
+            }
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    private void resize(int capacity) {
+        long[] previous = slots;
+        slots = new long[capacity];
+        mask = capacity - 1;
+        for (long id : previous) {
+            if (id == 0)
+                continue;
+            int i = slot(id);
+            while (slots[i] != 0)
+                i = (i + 1) & mask;
+            slots[i] = id;
+        }
+    }
+
+    // ids are sequential, so mix them before masking
+    private int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -1,32 +1,177 @@
 package microservice.appointmentservice.services;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.springframework.stereotype.Service;
 
-import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.annotation.Timed;
 import microservice.appointmentservice.dto.PatientDTO;
+import microservice.appointmentservice.exceptions.PatientNotFoundException;
 import microservice.appointmentservice.exceptions.PatientServiceUnavailableException;
 import microservice.appointmentservice.repositories.IPatientAPIRepository;
 
 @Service
+@Timed("patient.lookup")
 public class PatientLookupService {
+    private final PatientBatchLoader patientBatchLoader;
+    private final PatientCache patientCache;
+    private final LastKnownPatientStore lastKnownPatientStore;
     private final IPatientAPIRepository patientAPIRepository;
+    private final PatientServiceGuard patientServiceGuard;
 
-    public PatientLookupService(IPatientAPIRepository patientAPIRepository) {
+    public PatientLookupService(PatientBatchLoader patientBatchLoader, PatientCache patientCache,
+            LastKnownPatientStore lastKnownPatientStore, IPatientAPIRepository patientAPIRepository,
+            PatientServiceGuard patientServiceGuard) {
+        this.patientBatchLoader = patientBatchLoader;
+        this.patientCache = patientCache;
+        this.lastKnownPatientStore = lastKnownPatientStore;
         this.patientAPIRepository = patientAPIRepository;
+        this.patientServiceGuard = patientServiceGuard;
     }
 
     @CircuitBreaker(name = "patientService", fallbackMethod = "getPatientByIdFallback")
     public PatientDTO getPatientById(Long patientId) {
-        return patientAPIRepository.getPatientById(patientId);
+        return join(loadPatient(patientId));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getPatientById(Long)} so callers can run
+     * their local queries while the remote lookup is in flight. Use
+     * {@link #join(CompletableFuture)} to get the same exceptions as the
+     * blocking call.
+     */
+    @CircuitBreaker(name = "patientService", fallbackMethod = "getPatientByIdAsyncFallback")
+    public CompletableFuture<PatientDTO> getPatientByIdAsync(Long patientId) {
+        return loadPatient(patientId);
+    }
+
+    @CircuitBreaker(name = "patientService", fallbackMethod = "patientExistsFallback")
+    public boolean patientExists(Long patientId) {
+        try {
+            join(loadPatient(patientId));
+            return true;
+        } catch (PatientNotFoundException e) {
+            return false;
+        }
+    }
+
+    @CircuitBreaker(name = "patientService", fallbackMethod = "getPatientsByIdsFallback")
+    public Map<Long, PatientDTO> getPatientsByIds(Collection<Long> patientIds) {
+        Map<Long, PatientDTO> patients = new HashMap<>();
+        List<Long> missing = patientIds.stream()
+                .distinct()
+                .filter(patientId -> {
+                    PatientDTO cached = patientCache.get(patientId);
+                    if (cached == null)
+                        return true;
+                    patients.put(patientId, cached);
+                    return false;
+                })
+                .toList();
+
+        if (!missing.isEmpty()) {
+            Map<Long, PatientDTO> fetched = patientServiceGuard.call(() -> patientAPIRepository.getPatientsByIds(missing));
+            fetched.values().forEach(patient -> {
+                remember(patient);
+                patients.put(patient.getId(), patient);
+            });
+        }
+        return patients;
+    }
+
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private CompletableFuture<PatientDTO> loadPatient(Long patientId) {
+        PatientDTO cached = patientCache.get(patientId);
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        return patientBatchLoader.load(patientId).thenApply(patient -> {
+            remember(patient);
+            return patient;
+        });
+    }
+
+    private void remember(PatientDTO patient) {
+        patientCache.put(patient);
+        lastKnownPatientStore.put(patient);
     }
 
     private PatientDTO getPatientByIdFallback(Long patientId, Throwable throwable) {
-        if (throwable instanceof FeignException.NotFound) {
-            throw (FeignException.NotFound) throwable;
+        return staleOrThrow(patientId, throwable);
+    }
+
+    private CompletableFuture<PatientDTO> getPatientByIdAsyncFallback(Long patientId, Throwable throwable) {
+        try {
+            return CompletableFuture.completedFuture(staleOrThrow(patientId, throwable));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
+    }
+
+    private boolean patientExistsFallback(Long patientId, Throwable throwable) {
+        if (getStale(patientId) != null)
+            return true;
         throw new PatientServiceUnavailableException(
-                "Patient service is unavailable while fetching patient id=" + patientId,
+                "Patient service is unavailable while checking patient id=" + patientId,
                 throwable);
     }
+
+    private Map<Long, PatientDTO> getPatientsByIdsFallback(Collection<Long> patientIds, Throwable throwable) {
+        // a partial answer would read as "unknown patient" for the missing ids
+        Map<Long, PatientDTO> patients = new HashMap<>();
+        for (Long patientId : patientIds) {
+            PatientDTO stale = getStale(patientId);
+            if (stale == null)
+                throw new PatientServiceUnavailableException(
+                        "Patient service is unavailable while fetching " + patientIds.size() + " patients",
+                        throwable);
+            patients.put(patientId, stale);
+        }
+        return patients;
+    }
+
+    /**
+     * The fallbacks reach the last-known store only through this method: they
+     * may run on the proxy, which delegates non-private calls to the bean.
+     */
+    PatientDTO getStale(Long patientId) {
+        return lastKnownPatientStore.getStale(patientId);
+    }
+
+    private PatientDTO staleOrThrow(Long patientId, Throwable throwable) {
+        RuntimeException failure = toLookupException(patientId, throwable);
+        PatientDTO stale = failure instanceof PatientServiceUnavailableException
+                ? getStale(patientId)
+                : null;
+        if (stale == null)
+            throw failure;
+        return stale;
+    }
+
+    private RuntimeException toLookupException(Long patientId, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof PatientNotFoundException notFound) {
+            return notFound;
+        }
+        return new PatientServiceUnavailableException(
+                "Patient service is unavailable while fetching patient id=" + patientId,
+                cause);
+    }
 }
@@ -0,0 +1,200 @@
+package microservice.appointmentservice.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import microservice.appointmentservice.models.Appointment;
+
+/**
+ * In-memory per-resource timeline of booked intervals, ordered by start time.
+ * Bookings of one resource never overlap, so conflict checks and free-slot
+ * searches are a few TreeMap navigations regardless of calendar size.
+ */
+@Component
+public class ScheduleIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleIndex.class);
+
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+    private final LocalTime openingTime;
+    private final LocalTime closingTime;
+    private final int slotGranularityMinutes;
+    private final int searchHorizonDays;
+
+    public ScheduleIndex(@Value("${scheduling.opening-time:08:00}") String openingTime,
+            @Value("${scheduling.closing-time:18:00}") String closingTime,
+            @Value("${scheduling.slot-granularity-minutes:15}") int slotGranularityMinutes,
+            @Value("${scheduling.search-horizon-days:90}") int searchHorizonDays) {
+        this.openingTime = LocalTime.parse(openingTime);
+        this.closingTime = LocalTime.parse(closingTime);
+        this.slotGranularityMinutes = slotGranularityMinutes;
+        this.searchHorizonDays = searchHorizonDays;
+    }
+
+    public record Booking(Long appointmentId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Runs the action while holding the write locks of the given resources,
+     * taken in name order so concurrent callers cannot deadlock.
+     */
+    public <T> T withResourcesLocked(Collection<String> resourceIds, Supplier<T> action) {
+        List<Lock> locks = resourceIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .map(resourceId -> timeline(resourceId).lock.writeLock())
+                .toList();
+        List<Lock> acquired = new ArrayList<>(locks.size());
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                acquired.add(lock);
+            }
+            return action.get();
+        } finally {
+            acquired.forEach(Lock::unlock);
+        }
+    }
+
+    public Booking findConflict(String resourceId, LocalDateTime start, LocalDateTime end, Long ignoredAppointmentId) {
+        Timeline timeline = timelines.get(resourceId);
+        if (timeline == null)
+            return null;
+        timeline.lock.readLock().lock();
+        try {
+            return timeline.findConflict(start, end, ignoredAppointmentId);
+        } finally {
+            timeline.lock.readLock().unlock();
+        }
+    }
+
+    public void add(Appointment appointment) {
+        Booking booking = toBooking(appointment);
+        if (booking == null)
+            return;
+        Timeline timeline = timeline(appointment.getResourceId());
+        timeline.lock.writeLock().lock();
+        try {
+            Booking previous = timeline.bookings.put(booking.start(), booking);
+            if (previous != null && !previous.appointmentId().equals(booking.appointmentId()))
+                logger.warn("Appointments {} and {} of resource {} start at the same time",
+                        previous.appointmentId(), booking.appointmentId(), appointment.getResourceId());
+        } finally {
+            timeline.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Appointment appointment) {
+        Booking booking = toBooking(appointment);
+        if (booking == null)
+            return;
+        Timeline timeline = timelines.get(appointment.getResourceId());
+        if (timeline == null)
+            return;
+        timeline.lock.writeLock().lock();
+        try {
+            Booking current = timeline.bookings.get(booking.start());
+            if (current != null && current.appointmentId().equals(booking.appointmentId()))
+                timeline.bookings.remove(booking.start());
+        } finally {
+            timeline.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the start of the next free slots of the given duration within
+     * opening hours, aligned on the slot granularity.
+     */
+    public List<LocalDateTime> findFreeSlots(String resourceId, LocalDateTime from, Duration duration, int count) {
+        List<LocalDateTime> slots = new ArrayList<>(count);
+        if (Duration.between(openingTime, closingTime).compareTo(duration) < 0)
+            return slots;
+
+        // unknown resources are free everywhere, without registering a timeline for them
+        Timeline timeline = timelines.getOrDefault(resourceId, new Timeline());
+        LocalDateTime horizon = from.plusDays(searchHorizonDays);
+        timeline.lock.readLock().lock();
+        try {
+            LocalDateTime candidate = alignUp(from);
+            while (slots.size() < count && candidate.isBefore(horizon)) {
+                candidate = withinOpeningHours(candidate, duration);
+                LocalDateTime end = candidate.plus(duration);
+                Booking conflict = timeline.findConflict(candidate, end, null);
+                if (conflict == null) {
+                    slots.add(candidate);
+                    candidate = end;
+                } else {
+                    candidate = alignUp(conflict.end());
+                }
+            }
+        } finally {
+            timeline.lock.readLock().unlock();
+        }
+        return slots;
+    }
+
+    private Timeline timeline(String resourceId) {
+        return timelines.computeIfAbsent(resourceId, id -> new Timeline());
+    }
+
+    private LocalDateTime withinOpeningHours(LocalDateTime candidate, Duration duration) {
+        if (candidate.toLocalTime().isBefore(openingTime))
+            return candidate.toLocalDate().atTime(openingTime);
+        if (candidate.toLocalTime().plus(duration).isAfter(closingTime)
+                || candidate.toLocalTime().plus(duration).isBefore(candidate.toLocalTime()))
+            return candidate.toLocalDate().plusDays(1).atTime(openingTime);
+        return candidate;
+    }
+
+    private LocalDateTime alignUp(LocalDateTime time) {
+        LocalDateTime truncated = time.truncatedTo(ChronoUnit.MINUTES);
+        if (truncated.isBefore(time))
+            truncated = truncated.plusMinutes(1);
+        int remainder = (truncated.getHour() * 60 + truncated.getMinute()) % slotGranularityMinutes;
+        return remainder == 0 ? truncated : truncated.plusMinutes(slotGranularityMinutes - remainder);
+    }
+
+    private static Booking toBooking(Appointment appointment) {
+        if (appointment.getResourceId() == null || appointment.getDate() == null || appointment.getTime() == null
+                || appointment.getDurationMinutes() == null)
+            return null;
+        LocalDateTime start = appointment.getDate().atTime(appointment.getTime());
+        return new Booking(appointment.getId(), start, start.plusMinutes(appointment.getDurationMinutes()));
+    }
+
+    private static final class Timeline {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final NavigableMap<LocalDateTime, Booking> bookings = new TreeMap<>();
+
+        private Booking findConflict(LocalDateTime start, LocalDateTime end, Long ignoredAppointmentId) {
+            // bookings do not overlap, so walking back from the last one starting before end
+            // can stop at the first booking that ends before start
+            for (Booking booking : bookings.headMap(end, false).descendingMap().values()) {
+                if (!booking.end().isAfter(start))
+                    return null;
+                if (!booking.appointmentId().equals(ignoredAppointmentId))
+                    return booking;
+            }
+            return null;
+        }
+    }
+}
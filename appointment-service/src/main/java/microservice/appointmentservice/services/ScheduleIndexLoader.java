@@ -0,0 +1,37 @@
+package microservice.appointmentservice.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the schedule index from the database at startup, before the web
+ * server accepts bookings.
+ */
+@Component
+public class ScheduleIndexLoader implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleIndexLoader.class);
+
+    private final AppointmentService appointmentService;
+    private final ScheduleIndex scheduleIndex;
+
+    public ScheduleIndexLoader(AppointmentService appointmentService, ScheduleIndex scheduleIndex) {
+        this.appointmentService = appointmentService;
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long startedAt = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        appointmentService.streamAllAppointments(appointment -> {
+            scheduleIndex.add(appointment);
+            loaded.incrementAndGet();
+        });
+        logger.info("Loaded {} appointments into the schedule index in {} ms", loaded.get(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
@@ -0,0 +1,15 @@
+create sequence appointment_seq start with 1 increment by 50;
+
+create table appointment (
+    id bigint not null,
+    date date,
+    time time(6),
+    patient_id bigint,
+    duration_minutes integer,
+    resource_id varchar(255),
+    primary key (id)
+);
+
+-- keyset listing by date range, optionally restricted to one patient
+create index idx_appointment_date_time on appointment (date, time, id);
+create index idx_appointment_patient_date on appointment (patient_id, date, time, id);
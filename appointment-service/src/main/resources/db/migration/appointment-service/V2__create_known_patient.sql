@@ -0,0 +1,7 @@
+-- patients as last received from the patient change feed
+create table known_patient (
+    patient_id bigint not null,
+    last_sequence bigint not null,
+    deleted boolean not null,
+    primary key (patient_id)
+);
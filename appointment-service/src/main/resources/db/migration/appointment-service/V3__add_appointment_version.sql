@@ -0,0 +1,2 @@
+-- optimistic locking, exposed as the ETag of an appointment
+alter table appointment add column version bigint not null default 0;
@@ -0,0 +1,6 @@
+-- how far appointment reminders have been delivered, so a restart resumes from there
+create table reminder_checkpoint (
+    id integer not null,
+    dispatched_up_to bigint not null,
+    primary key (id)
+);
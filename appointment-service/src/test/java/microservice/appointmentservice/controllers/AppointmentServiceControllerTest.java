@@ -0,0 +1,89 @@
+package microservice.appointmentservice.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import microservice.appointmentservice.dto.AppointmentDTO;
+import microservice.appointmentservice.services.AppointmentService;
+
+// patient-service is unreachable: every patient lookup fails
+@SpringBootTest(properties = "spring.cloud.openfeign.client.config.patient-service.url=http://localhost:1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AppointmentServiceControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private AppointmentService appointmentService;
+
+    private Long id;
+
+    @BeforeEach
+    void createAppointment() {
+        id = appointmentService.createAppointment(AppointmentDTO.builder()
+                .date(LocalDate.now().plusDays(7))
+                .time(LocalTime.of(9, 0))
+                .patientId(1L)
+                .durationMinutes(30)
+                .resourceId("room-" + UUID.randomUUID())
+                .build()).getId();
+    }
+
+    @Test
+    void eachWriteBumpsTheVersionOnce() throws Exception {
+        mockMvc.perform(patch("/api/v1/appointments/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"time\":\"10:00:00\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.time").value("10:00:00"));
+
+        mockMvc.perform(put("/api/v1/appointments/{id}", id).header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":45}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.time").value("10:00:00"))
+                .andExpect(jsonPath("$.durationMinutes").value(45));
+    }
+
+    @Test
+    void staleIfMatchIsAFailedPrecondition() throws Exception {
+        mockMvc.perform(patch("/api/v1/appointments/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":45}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/appointments/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":60}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void unknownAppointmentIsNotFound() throws Exception {
+        mockMvc.perform(patch("/api/v1/appointments/{id}", Long.MAX_VALUE)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"durationMinutes\":45}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unverifiablePatientIsServiceUnavailable() throws Exception {
+        mockMvc.perform(patch("/api/v1/appointments/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"patientId\":424242}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,92 @@
+package microservice.appointmentservice.reminders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void returnsAnEntryAtTheEndOfItsTick() {
+        TimingWheel wheel = new TimingWheel(1_000, 8, START);
+        wheel.add(1, START + 2_500);
+
+        assertEquals(0, wheel.advance(START + 2_999).length);
+        assertArrayEquals(new long[] { 1, START + 2_500 }, wheel.advance(START + 3_000));
+        assertEquals(0, wheel.size());
+        assertEquals(START + 3_000, wheel.currentTime());
+    }
+
+    @Test
+    void cascadesDownEveryLevelBeforeExpiring() {
+        // level 0 spans 40 ms, level 1 160 ms, level 2 640 ms, level 3 2560 ms
+        TimingWheel wheel = new TimingWheel(10, 4, START);
+        long[] dueTimes = { START + 35, START + 155, START + 600, START + 2_000, START + 2_555 };
+        for (int i = 0; i < dueTimes.length; i++)
+            wheel.add(i, dueTimes[i]);
+
+        Map<Long, Long> returnedAt = new HashMap<>();
+        for (long now = START + 10; now <= START + 2_600; now += 10) {
+            long[] due = wheel.advance(now);
+            for (int i = 0; i < due.length; i += 2) {
+                assertEquals(dueTimes[(int) due[i]], due[i + 1]);
+                assertNull(returnedAt.put(due[i], now));
+            }
+        }
+
+        for (int i = 0; i < dueTimes.length; i++)
+            assertEquals(dueTimes[i] - dueTimes[i] % 10 + 10, returnedAt.get((long) i), "entry " + i);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void returnsOverdueEntriesOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(1_000, 8, START);
+        wheel.advance(START + 10_000);
+        wheel.add(7, START + 1_000);
+
+        assertEquals(1, wheel.size());
+        assertArrayEquals(new long[] { 7, START + 1_000 }, wheel.advance(START + 10_000));
+    }
+
+    @Test
+    void neverEarlyAndAtMostOneTickLate() {
+        Random random = new Random(42);
+        for (int round = 0; round < 100; round++) {
+            long tick = 1 + random.nextInt(1_000);
+            int wheelSize = 2 + random.nextInt(64);
+            long start = START + random.nextInt(1_000_000);
+            TimingWheel wheel = new TimingWheel(tick, wheelSize, start);
+            Map<Long, Long> pending = new HashMap<>();
+            long now = start;
+            long key = 0;
+            for (int step = 0; step < 200; step++) {
+                for (int i = random.nextInt(20); i > 0; i--) {
+                    // mostly near, some levels up, a few already overdue
+                    long horizon = tick * wheelSize * wheelSize * wheelSize * 2;
+                    long dueAt = now + (long) (Math.pow(random.nextDouble(), 3) * horizon) - tick;
+                    wheel.add(key, dueAt);
+                    pending.put(key++, dueAt);
+                }
+                now += (long) (random.nextDouble() * tick * (random.nextInt(10) == 0 ? wheelSize * wheelSize : 3));
+
+                long[] due = wheel.advance(now);
+                for (int i = 0; i < due.length; i += 2) {
+                    assertEquals(pending.remove(due[i]), due[i + 1]);
+                    assertTrue(due[i + 1] <= now, "returned early");
+                }
+                for (long dueAt : pending.values())
+                    assertTrue(dueAt > now - tick, "returned late");
+                assertEquals(pending.size(), wheel.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package microservice.appointmentservice.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import microservice.appointmentservice.exceptions.PatientServiceUnavailableException;
+
+/** Runs the guard, configured as in config-repo but with shorter waits, against a delayed local stub. */
+class PatientServiceGuardTest {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int MAX_CONCURRENT_CALLS = 2;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable closeable : closeables)
+            closeable.close();
+    }
+
+    @Test
+    void timeoutBecomesServiceUnavailableAfterEveryAttempt() throws Exception {
+        Stub stub = stub(1_000, 0);
+        PatientServiceGuard guard = guard(Duration.ofMillis(200));
+
+        PatientServiceUnavailableException e = assertThrows(PatientServiceUnavailableException.class,
+                () -> guard.call(() -> get(stub)));
+
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertEquals(MAX_ATTEMPTS, stub.requests.get());
+    }
+
+    @Test
+    void retriesUnavailableAnswersUpToMaxAttempts() throws Exception {
+        Stub recovering = stub(0, MAX_ATTEMPTS - 1);
+        PatientServiceGuard guard = guard(Duration.ofSeconds(2));
+
+        assertEquals("{\"id\":1}", guard.call(() -> get(recovering)));
+        assertEquals(MAX_ATTEMPTS, recovering.requests.get());
+
+        Stub down = stub(0, Integer.MAX_VALUE);
+        assertThrows(IllegalStateException.class, () -> guard.call(() -> get(down)));
+        assertEquals(MAX_ATTEMPTS, down.requests.get());
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutOpeningTheCircuitBreaker() throws Exception {
+        Stub stub = stub(500, 0);
+        PatientServiceGuard guard = guard(Duration.ofSeconds(2));
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("patientService", CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(5)
+                .minimumNumberOfCalls(3)
+                .failureRateThreshold(50)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        closeables.add(callers::shutdownNow);
+        List<CompletableFuture<String>> admitted = new ArrayList<>();
+        for (int i = 0; i < MAX_CONCURRENT_CALLS; i++)
+            admitted.add(CompletableFuture.supplyAsync(
+                    () -> circuitBreaker.executeSupplier(() -> guard.call(() -> get(stub))), callers));
+        while (stub.requests.get() < MAX_CONCURRENT_CALLS)
+            Thread.sleep(5);
+
+        for (int i = 0; i < 5; i++)
+            assertThrows(BulkheadFullException.class,
+                    () -> circuitBreaker.executeSupplier(() -> guard.call(() -> get(stub))));
+
+        for (CompletableFuture<String> call : admitted)
+            assertEquals("{\"id\":1}", call.get(5, TimeUnit.SECONDS));
+        assertEquals(MAX_CONCURRENT_CALLS, stub.requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    private PatientServiceGuard guard(Duration timeout) {
+        PatientServiceGuard guard = new PatientServiceGuard(
+                BulkheadRegistry.of(BulkheadConfig.custom()
+                        .maxConcurrentCalls(MAX_CONCURRENT_CALLS)
+                        .maxWaitDuration(Duration.ofMillis(50))
+                        .build()),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                        .timeoutDuration(timeout)
+                        .cancelRunningFuture(true)
+                        .build()),
+                RetryRegistry.of(RetryConfig.custom()
+                        .maxAttempts(MAX_ATTEMPTS)
+                        .waitDuration(Duration.ofMillis(10))
+                        // IllegalStateException stands for the 5xx Feign exceptions here
+                        .retryExceptions(TimeoutException.class, IllegalStateException.class)
+                        .build()));
+        closeables.add(guard::destroy);
+        return guard;
+    }
+
+    private Stub stub(long delayMillis, int failuresFirst) throws IOException {
+        Stub stub = new Stub(delayMillis, failuresFirst);
+        closeables.add(stub);
+        return stub;
+    }
+
+    private String get(Stub stub) {
+        try {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/api/v1/patients/1")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 500)
+                throw new IllegalStateException("patient-service answered " + response.statusCode());
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Answers every request after a fixed delay: 503 for the first failuresFirst, then a patient. */
+    private static final class Stub implements AutoCloseable {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final long delayMillis;
+        private final int failuresFirst;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private Stub(long delayMillis, int failuresFirst) throws IOException {
+            this.delayMillis = delayMillis;
+            this.failuresFirst = failuresFirst;
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+            this.server.createContext("/", this::handle);
+            this.server.setExecutor(executor);
+            this.server.start();
+        }
+
+        private String baseUrl() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                int request = requests.incrementAndGet();
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(request <= failuresFirst ? 503 : 200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package microservice.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import microservice.appointmentservice.dto.AppointmentDTO;
+import microservice.appointmentservice.models.Appointment;
+import microservice.medicalrecordservice.dto.MedicalRecordDTO;
+import microservice.medicalrecordservice.dto.RecordEntryDTO;
+import microservice.medicalrecordservice.models.MedicalRecord;
+import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.models.RecordEntryType;
+import microservice.patientservice.dto.PatientDTO;
+import microservice.patientservice.models.Patient;
+
+/**
+ * Entity-to-DTO mapping cost, using the same builder chains as the
+ * controllers and MedicalRecordService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({ "10", "200" })
+    public int entriesPerRecord;
+
+    private Patient patient;
+    private Appointment appointment;
+    private MedicalRecord record;
+    private List<RecordEntry> entries;
+
+    @Setup
+    public void setUp() {
+        patient = Patient.builder()
+                .id(1L)
+                .name("Doe")
+                .firstName("Jane")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .contact("0600000000")
+                .build();
+        appointment = Appointment.builder()
+                .id(1L)
+                .date(LocalDate.of(2026, 1, 1))
+                .time(LocalTime.of(10, 30))
+                .patientId(1L)
+                .build();
+        record = MedicalRecord.builder()
+                .id(1L)
+                .patientId(1L)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .bloodType("O+")
+                .allergies("Penicillin")
+                .build();
+        entries = new ArrayList<>(entriesPerRecord);
+        for (long i = 0; i < entriesPerRecord; i++) {
+            entries.add(RecordEntry.builder()
+                    .id(i)
+                    .recordId(1L)
+                    .date(LocalDate.of(2020, 1, 1).plusDays(i))
+                    .type(RecordEntryType.values()[(int) (i % RecordEntryType.values().length)])
+                    .content("Consultation note " + i)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public PatientDTO patientDTO() {
+        return PatientDTO.builder()
+                .id(patient.getId())
+                .name(patient.getName())
+                .firstName(patient.getFirstName())
+                .birthDate(patient.getBirthDate())
+                .contact(patient.getContact())
+                .build();
+    }
+
+    @Benchmark
+    public AppointmentDTO appointmentDTO() {
+        return AppointmentDTO.builder()
+                .id(appointment.getId())
+                .date(appointment.getDate())
+                .time(appointment.getTime())
+                .patientId(appointment.getPatientId())
+                .build();
+    }
+
+    @Benchmark
+    public MedicalRecordDTO medicalRecordDTO() {
+        List<RecordEntryDTO> entryDTOs = entries.stream()
+                .map(entry -> RecordEntryDTO.builder()
+                        .id(entry.getId())
+                        .recordId(entry.getRecordId())
+                        .date(entry.getDate())
+                        .type(entry.getType())
+                        .content(entry.getContent())
+                        .build())
+                .toList();
+
+        return MedicalRecordDTO.builder()
+                .id(record.getId())
+                .patientId(record.getPatientId())
+                .createdAt(record.getCreatedAt())
+                .updatedAt(record.getUpdatedAt())
+                .bloodType(record.getBloodType())
+                .allergies(record.getAllergies())
+                .entryCount(entryDTOs.size())
+                .entries(entryDTOs)
+                .build();
+    }
+}
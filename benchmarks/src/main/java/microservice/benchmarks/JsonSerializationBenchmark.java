@@ -0,0 +1,91 @@
+package microservice.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import microservice.medicalrecordservice.dto.MedicalRecordDTO;
+import microservice.medicalrecordservice.dto.RecordEntryDTO;
+import microservice.medicalrecordservice.models.RecordEntryType;
+import microservice.patientservice.dto.PatientDTO;
+
+/**
+ * Jackson serialization of large response bodies, with the ObjectMapper
+ * configured the way Spring Boot configures it for the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<PatientDTO> patients;
+    private MedicalRecordDTO record;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        patients = new ArrayList<>(size);
+        List<RecordEntryDTO> entries = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            patients.add(PatientDTO.builder()
+                    .id(i)
+                    .name("Name" + i)
+                    .firstName("First" + i)
+                    .birthDate(LocalDate.of(1980, 1, 1).plusDays(i % 10_000))
+                    .contact("0600000000")
+                    .build());
+            entries.add(RecordEntryDTO.builder()
+                    .id(i)
+                    .recordId(1L)
+                    .date(LocalDate.of(2020, 1, 1).plusDays(i % 2_000))
+                    .type(RecordEntryType.CONSULTATION)
+                    .content("Routine follow-up visit, blood pressure stable, continue current treatment " + i)
+                    .build());
+        }
+        record = MedicalRecordDTO.builder()
+                .id(1L)
+                .patientId(1L)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .bloodType("O+")
+                .entryCount(size)
+                .entries(entries)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] patientList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patients);
+    }
+
+    @Benchmark
+    public byte[] medicalRecordWithEntries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(record);
+    }
+}
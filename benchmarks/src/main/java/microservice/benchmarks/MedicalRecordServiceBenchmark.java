@@ -0,0 +1,110 @@
+package microservice.benchmarks;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import microservice.benchmarks.support.MedicalRecordServiceContext;
+import microservice.benchmarks.support.PatientServiceStub;
+import microservice.medicalrecordservice.dto.MedicalRecordDTO;
+import microservice.medicalrecordservice.dto.RecordEntryPageDTO;
+import microservice.medicalrecordservice.models.MedicalRecord;
+import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.models.RecordEntryType;
+import microservice.medicalrecordservice.repositories.IMedicalRecordRepository;
+import microservice.medicalrecordservice.repositories.IRecordEntryRepository;
+import microservice.medicalrecordservice.services.MedicalRecordService;
+
+/**
+ * MedicalRecordService read paths against an in-memory H2 database. Patients
+ * come from a local stub and are mostly served from the near cache after
+ * warmup, so the numbers are dominated by the database and DTO mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicalRecordServiceBenchmark {
+    private static final int PATIENTS = 200;
+
+    @Param({ "10", "200" })
+    public int entriesPerRecord;
+
+    private PatientServiceStub patientServiceStub;
+    private ConfigurableApplicationContext context;
+    private MedicalRecordService medicalRecordService;
+    private List<Long> batchPatientIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        patientServiceStub = new PatientServiceStub(0);
+        context = MedicalRecordServiceContext.start(patientServiceStub.baseUrl());
+        medicalRecordService = context.getBean(MedicalRecordService.class);
+
+        IMedicalRecordRepository recordRepository = context.getBean(IMedicalRecordRepository.class);
+        IRecordEntryRepository entryRepository = context.getBean(IRecordEntryRepository.class);
+        for (long patientId = 1; patientId <= PATIENTS; patientId++) {
+            MedicalRecord record = recordRepository.save(MedicalRecord.builder()
+                    .patientId(patientId)
+                    .bloodType("O+")
+                    .build());
+            List<RecordEntry> entries = new ArrayList<>(entriesPerRecord);
+            for (int i = 0; i < entriesPerRecord; i++) {
+                entries.add(RecordEntry.builder()
+                        .recordId(record.getId())
+                        .date(LocalDate.of(2020, 1, 1).plusDays(i))
+                        .type(RecordEntryType.values()[i % RecordEntryType.values().length])
+                        .content("Routine follow-up visit, blood pressure stable, continue treatment " + i)
+                        .build());
+            }
+            entryRepository.saveAll(entries);
+        }
+        batchPatientIds = LongStream.rangeClosed(1, 50).boxed().toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        patientServiceStub.close();
+    }
+
+    @Benchmark
+    public MedicalRecordDTO recordSummaryByPatientId() {
+        return medicalRecordService.getMedicalRecordByPatientId(randomPatientId(), 5);
+    }
+
+    @Benchmark
+    public List<MedicalRecordDTO> recordSummariesFor50Patients() {
+        return medicalRecordService.getMedicalRecordsByPatientIds(batchPatientIds, 5);
+    }
+
+    @Benchmark
+    public RecordEntryPageDTO entryPageByPatientId() {
+        return medicalRecordService.getEntriesByPatientId(randomPatientId(), RecordEntryType.NOTE, null, null, 0, 20);
+    }
+
+    private static long randomPatientId() {
+        return ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+    }
+}
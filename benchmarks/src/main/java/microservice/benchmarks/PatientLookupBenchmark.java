@@ -0,0 +1,85 @@
+package microservice.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import microservice.benchmarks.support.MedicalRecordServiceContext;
+import microservice.benchmarks.support.PatientServiceStub;
+import microservice.medicalrecordservice.clients.PatientClient;
+import microservice.medicalrecordservice.dto.PatientDTO;
+import microservice.medicalrecordservice.services.PatientLookupService;
+
+/**
+ * Feign round trips to a local patient-service stub. The near cache is
+ * disabled so every lookup reaches the stub; the coalesced variant runs from
+ * several threads so the batch loader has concurrent lookups to merge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientLookupBenchmark {
+    private static final int PATIENTS = 10_000;
+
+    private PatientServiceStub patientServiceStub;
+    private ConfigurableApplicationContext context;
+    private PatientClient patientClient;
+    private PatientLookupService patientLookupService;
+    private List<Long> batchIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        patientServiceStub = new PatientServiceStub(0);
+        context = MedicalRecordServiceContext.start(patientServiceStub.baseUrl(), "patient-cache.max-size=0");
+        patientClient = context.getBean(PatientClient.class);
+        patientLookupService = context.getBean(PatientLookupService.class);
+        batchIds = LongStream.rangeClosed(1, 100).boxed().toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        patientServiceStub.close();
+    }
+
+    @Benchmark
+    public PatientDTO feignSingleLookup() {
+        return patientClient.getPatientById(randomPatientId());
+    }
+
+    @Benchmark
+    public Map<Long, PatientDTO> feignBatchLookupOf100() {
+        return patientClient.getPatientsByIds(batchIds);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public PatientDTO coalescedLookup() {
+        return patientLookupService.getPatientById(randomPatientId());
+    }
+
+    private static long randomPatientId() {
+        return ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+    }
+}
@@ -0,0 +1,127 @@
+package microservice.benchmarks;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import microservice.benchmarks.support.MedicalRecordServiceContext;
+import microservice.benchmarks.support.PatientServiceStub;
+import microservice.medicalrecordservice.dto.CreateMedicalRecordRequestDTO;
+import microservice.medicalrecordservice.dto.CreateRecordEntryRequestDTO;
+import microservice.medicalrecordservice.dto.RecordEntryDTO;
+import microservice.medicalrecordservice.models.RecordEntryType;
+import microservice.medicalrecordservice.services.ColdEntryArchiver;
+import microservice.medicalrecordservice.services.ColdSegmentStore;
+import microservice.medicalrecordservice.services.MedicalRecordService;
+
+/**
+ * Reading full entry contents when they are stored as plain text, Deflate
+ * compressed in the database, or moved to the cold segment files. The setup
+ * prints the bytes each layout takes for the same notes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordEntryStorageBenchmark {
+    private static final int PATIENTS = 100;
+    private static final int ENTRIES_PER_PATIENT = 20;
+    private static final int NOTE_BYTES = 4096;
+    private static final String[] SENTENCES = {
+            "Patient reports intermittent headaches over the past two weeks.",
+            "Blood pressure measured at 135/85, slightly above the previous visit.",
+            "No known drug allergies; current medication is continued unchanged.",
+            "Auscultation of heart and lungs is normal, no murmur detected.",
+            "Advised to reduce salt intake and increase physical activity.",
+            "Laboratory results show fasting glucose within the normal range.",
+            "Follow-up appointment scheduled in three months with repeat blood work.",
+            "Mild tenderness in the lower back without radiating pain.",
+            "Patient denies fever, chills or recent weight loss.",
+            "Vaccination record reviewed and updated during this consultation." };
+
+    @Param({ "plain", "deflate", "cold" })
+    public String storage;
+
+    private PatientServiceStub patientServiceStub;
+    private ConfigurableApplicationContext context;
+    private MedicalRecordService medicalRecordService;
+    private final Map<Long, List<Long>> entryIdsByPatient = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        patientServiceStub = new PatientServiceStub(0);
+        String threshold = storage.equals("plain") ? String.valueOf(Integer.MAX_VALUE) : "1024";
+        context = MedicalRecordServiceContext.start(patientServiceStub.baseUrl(),
+                "record-entries.compression.threshold-bytes=" + threshold);
+        medicalRecordService = context.getBean(MedicalRecordService.class);
+
+        Random random = new Random(42);
+        for (long patientId = 1; patientId <= PATIENTS; patientId++) {
+            medicalRecordService.createMedicalRecord(CreateMedicalRecordRequestDTO.builder()
+                    .patientId(patientId)
+                    .build());
+            List<Long> entryIds = new ArrayList<>(ENTRIES_PER_PATIENT);
+            for (int i = 0; i < ENTRIES_PER_PATIENT; i++) {
+                RecordEntryDTO entry = medicalRecordService.addEntryByPatientId(patientId,
+                        CreateRecordEntryRequestDTO.builder()
+                                .date(LocalDate.of(2015, 1, 1).plusDays(i))
+                                .type(RecordEntryType.NOTE)
+                                .content(note(random))
+                                .build());
+                entryIds.add(entry.getId());
+            }
+            entryIdsByPatient.put(patientId, entryIds);
+        }
+        if (storage.equals("cold"))
+            context.getBean(ColdEntryArchiver.class).archiveOlderThan(LocalDate.now());
+
+        Long inlineBytes = context.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COALESCE(SUM(OCTET_LENGTH(content)), 0) + COALESCE(SUM(OCTET_LENGTH(compressed_content)), 0)"
+                        + " FROM record_entries", Long.class);
+        System.out.printf("%n[%s] inline content bytes: %d, cold segment bytes: %d%n", storage, inlineBytes,
+                context.getBean(ColdSegmentStore.class).sizeInBytes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        patientServiceStub.close();
+    }
+
+    @Benchmark
+    public List<RecordEntryDTO> entryContentsByPatientId() {
+        long patientId = ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+        return medicalRecordService.getEntryContentsByPatientId(patientId, entryIdsByPatient.get(patientId));
+    }
+
+    private static String note(Random random) {
+        StringBuilder note = new StringBuilder(NOTE_BYTES + 100);
+        while (note.length() < NOTE_BYTES)
+            note.append(SENTENCES[random.nextInt(SENTENCES.length)]).append(' ');
+        return note.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package microservice.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import microservice.benchmarks.support.MedicalRecordServiceContext;
+import microservice.benchmarks.support.PatientServiceStub;
+import microservice.medicalrecordservice.clients.PatientClient;
+
+/**
+ * Load test for request handling while patient-service is slow: a burst of
+ * concurrent requests, each blocked on a Feign call to a stub that answers
+ * after a fixed delay. "platform" mirrors Tomcat's default 200-thread pool, "virtual"
+ * runs every request on its own virtual thread as with
+ * spring.threads.virtual.enabled=true. The score is the time to drain one
+ * burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SlowPatientServiceCapacityBenchmark {
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    @Param({ "1000" })
+    public int concurrentRequests;
+
+    @Param({ "1000" })
+    public long patientServiceDelayMillis;
+
+    private PatientServiceStub patientServiceStub;
+    private ConfigurableApplicationContext context;
+    private PatientClient patientClient;
+    private ExecutorService requestExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        patientServiceStub = new PatientServiceStub(patientServiceDelayMillis);
+        context = MedicalRecordServiceContext.start(patientServiceStub.baseUrl(), "patient-cache.max-size=0");
+        patientClient = context.getBean(PatientClient.class);
+        requestExecutor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        context.close();
+        patientServiceStub.close();
+    }
+
+    @Benchmark
+    public int burstOfBlockingLookups() throws InterruptedException, ExecutionException {
+        List<Future<?>> requests = new ArrayList<>(concurrentRequests);
+        for (long patientId = 1; patientId <= concurrentRequests; patientId++) {
+            long id = patientId;
+            requests.add(requestExecutor.submit(() -> patientClient.getPatientById(id)));
+        }
+        for (Future<?> request : requests) {
+            request.get();
+        }
+        return requests.size();
+    }
+}
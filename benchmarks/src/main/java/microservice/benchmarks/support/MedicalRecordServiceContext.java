@@ -0,0 +1,35 @@
+package microservice.benchmarks.support;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import microservice.medicalrecordservice.MedicalRecordServiceApplication;
+
+/**
+ * Boots medical-record-service without a web server, Eureka or the config
+ * server, on a private in-memory H2 database and pointed at a patient-service
+ * stub.
+ */
+public final class MedicalRecordServiceContext {
+
+    private MedicalRecordServiceContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String patientServiceUrl, String... extraProperties) {
+        return new SpringApplicationBuilder(MedicalRecordServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.import=",
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "spring.cloud.openfeign.client.config.patient-service.url=" + patientServiceUrl,
+                        "search.index-dir=" + System.getProperty("java.io.tmpdir") + "/bench-index-" + System.nanoTime(),
+                        "record-entries.cold.dir=" + System.getProperty("java.io.tmpdir") + "/bench-cold-" + System.nanoTime(),
+                        "logging.level.root=WARN")
+                .properties(extraProperties)
+                // every service jar ships an application.yml; only the first one on the classpath is read
+                .run("--spring.application.name=medical-record-service");
+    }
+}
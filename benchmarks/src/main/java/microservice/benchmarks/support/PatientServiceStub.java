@@ -0,0 +1,102 @@
+package microservice.benchmarks.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal in-process stand-in for patient-service, answering the single-id and
+ * batch lookup routes with generated patients after an optional fixed delay.
+ */
+public class PatientServiceStub implements AutoCloseable {
+    private static final String PATIENTS_PATH = "/api/v1/patients/";
+    private static final String BATCH_PATH = "/api/v1/patients/batch";
+
+    static {
+        // Otherwise Nagle's algorithm adds ~40ms to every small response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long delayMillis;
+
+    public PatientServiceStub(long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.createContext(PATIENTS_PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            pause();
+            String path = exchange.getRequestURI().getPath();
+            Object body;
+            if ("POST".equals(exchange.getRequestMethod()) && BATCH_PATH.equals(path)) {
+                List<Long> ids = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {
+                });
+                Map<Long, Map<String, Object>> patients = new LinkedHashMap<>();
+                ids.forEach(id -> patients.put(id, patient(id)));
+                body = patients;
+            } else {
+                body = patient(Long.parseLong(path.substring(PATIENTS_PATH.length())));
+            }
+
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        }
+    }
+
+    private void pause() {
+        if (delayMillis <= 0)
+            return;
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Object> patient(long id) {
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("id", id);
+        patient.put("name", "Name" + id);
+        patient.put("firstName", "First" + id);
+        patient.put("birthDate", LocalDate.of(1980, 1, 1).plusDays(id % 10_000));
+        patient.put("contact", "06" + String.format("%08d", id));
+        return patient;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
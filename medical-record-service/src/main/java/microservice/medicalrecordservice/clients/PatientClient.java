@@ -1,8 +1,13 @@
 package microservice.medicalrecordservice.clients;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import microservice.medicalrecordservice.dto.PatientDTO;
 
@@ -11,4 +16,7 @@ public interface PatientClient {
 
     @GetMapping("/api/v1/patients/{patientId}")
     PatientDTO getPatientById(@PathVariable("patientId") Long patientId);
+
+    @PostMapping("/api/v1/patients/batch")
+    Map<Long, PatientDTO> getPatientsByIds(@RequestBody Collection<Long> ids);
 }
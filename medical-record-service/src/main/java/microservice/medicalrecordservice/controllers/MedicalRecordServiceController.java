@@ -1,7 +1,10 @@
 package microservice.medicalrecordservice.controllers;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,19 +12,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import feign.FeignException;
 import microservice.medicalrecordservice.dto.CreateMedicalRecordRequestDTO;
 import microservice.medicalrecordservice.dto.CreateRecordEntryRequestDTO;
 import microservice.medicalrecordservice.dto.MedicalRecordDTO;
 import microservice.medicalrecordservice.dto.RecordEntryDTO;
+import microservice.medicalrecordservice.dto.RecordEntryPageDTO;
+import microservice.medicalrecordservice.dto.RecordEntrySearchResultDTO;
+import microservice.medicalrecordservice.exceptions.PatientNotFoundException;
 import microservice.medicalrecordservice.exceptions.PatientServiceUnavailableException;
+import microservice.medicalrecordservice.models.RecordEntryType;
 import microservice.medicalrecordservice.services.MedicalRecordService;
 
 @RestController
 @RequestMapping("/api/v1/medical-records")
 public class MedicalRecordServiceController {
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_LATEST_ENTRIES = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_WINDOW = 1000;
+
     private final MedicalRecordService medicalRecordService;
 
     public MedicalRecordServiceController(MedicalRecordService medicalRecordService) {
@@ -33,7 +45,7 @@ public class MedicalRecordServiceController {
         try {
             MedicalRecordDTO created = medicalRecordService.createMedicalRecord(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
-        } catch (FeignException.NotFound e) {
+        } catch (PatientNotFoundException e) {
             return ResponseEntity.badRequest().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -44,11 +56,25 @@ public class MedicalRecordServiceController {
         }
     }
 
+    @GetMapping
+    public ResponseEntity<List<MedicalRecordDTO>> getByPatientIds(@RequestParam List<Long> patientIds,
+            @RequestParam(defaultValue = "5") int latest) {
+        if (patientIds.size() > MAX_BATCH_SIZE)
+            return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(
+                    medicalRecordService.getMedicalRecordsByPatientIds(patientIds, clampLatest(latest)));
+        } catch (PatientServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<MedicalRecordDTO> getByPatientId(@PathVariable Long patientId) {
+    public ResponseEntity<MedicalRecordDTO> getByPatientId(@PathVariable Long patientId,
+            @RequestParam(defaultValue = "5") int latest) {
         try {
-            return ResponseEntity.ok(medicalRecordService.getMedicalRecordByPatientId(patientId));
-        } catch (FeignException.NotFound e) {
+            return ResponseEntity.ok(medicalRecordService.getMedicalRecordByPatientId(patientId, clampLatest(latest)));
+        } catch (PatientNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
@@ -57,6 +83,73 @@ public class MedicalRecordServiceController {
         }
     }
 
+    @GetMapping("/patient/{patientId}/entries")
+    public ResponseEntity<RecordEntryPageDTO> getEntries(@PathVariable Long patientId,
+            @RequestParam(required = false) RecordEntryType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE)
+            return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(medicalRecordService.getEntriesByPatientId(patientId, type, from, to, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/patient/{patientId}/entries/content")
+    public ResponseEntity<List<RecordEntryDTO>> getEntryContents(@PathVariable Long patientId,
+            @RequestParam List<Long> ids) {
+        if (ids.size() > MAX_PAGE_SIZE)
+            return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(medicalRecordService.getEntryContentsByPatientId(patientId, ids));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/patient/{patientId}/entries/search")
+    public ResponseEntity<RecordEntrySearchResultDTO> searchPatientEntries(@PathVariable Long patientId,
+            @RequestParam String q,
+            @RequestParam(required = false) RecordEntryType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!isValidSearchPage(page, size))
+            return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(
+                    medicalRecordService.searchEntriesByPatientId(patientId, q, type, from, to, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<RecordEntrySearchResultDTO> searchEntries(@RequestParam String q,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) RecordEntryType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!isValidSearchPage(page, size))
+            return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(medicalRecordService.searchEntries(q, patientId, type, from, to, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/patient/{patientId}/entries")
     public ResponseEntity<RecordEntryDTO> addEntry(@PathVariable Long patientId,
             @RequestBody CreateRecordEntryRequestDTO request) {
@@ -73,10 +166,11 @@ public class MedicalRecordServiceController {
     }
 
     @GetMapping("/{recordId}")
-    public ResponseEntity<MedicalRecordDTO> getByRecordId(@PathVariable Long recordId) {
+    public ResponseEntity<MedicalRecordDTO> getByRecordId(@PathVariable Long recordId,
+            @RequestParam(defaultValue = "5") int latest) {
         try {
-            return ResponseEntity.ok(medicalRecordService.getMedicalRecordById(recordId));
-        } catch (FeignException.NotFound e) {
+            return ResponseEntity.ok(medicalRecordService.getMedicalRecordById(recordId, clampLatest(latest)));
+        } catch (PatientNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
@@ -84,4 +178,12 @@ public class MedicalRecordServiceController {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
+
+    private boolean isValidSearchPage(int page, int size) {
+        return page >= 0 && size >= 1 && size <= MAX_PAGE_SIZE && (long) (page + 1) * size <= MAX_SEARCH_WINDOW;
+    }
+
+    private int clampLatest(int latest) {
+        return Math.max(1, Math.min(latest, MAX_LATEST_ENTRIES));
+    }
 }
@@ -0,0 +1,49 @@
+package microservice.medicalrecordservice.controllers;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import microservice.medicalrecordservice.dto.PatientChangeEventDTO;
+import microservice.medicalrecordservice.services.MedicalRecordService;
+import microservice.medicalrecordservice.services.KnownPatientService;
+import microservice.medicalrecordservice.services.LastKnownPatientStore;
+import microservice.medicalrecordservice.services.PatientCache;
+
+/** Receives batches of patient changes relayed from the patient-service outbox. */
+@RestController
+@RequestMapping("/internal/patient-changes")
+public class PatientChangeController {
+    private final KnownPatientService knownPatientService;
+    private final MedicalRecordService medicalRecordService;
+    private final PatientCache patientCache;
+    private final LastKnownPatientStore lastKnownPatientStore;
+
+    public PatientChangeController(KnownPatientService knownPatientService, MedicalRecordService medicalRecordService,
+            PatientCache patientCache, LastKnownPatientStore lastKnownPatientStore) {
+        this.knownPatientService = knownPatientService;
+        this.medicalRecordService = medicalRecordService;
+        this.patientCache = patientCache;
+        this.lastKnownPatientStore = lastKnownPatientStore;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> onPatientsChanged(@RequestBody List<PatientChangeEventDTO> events) {
+        if (events == null || events.stream().anyMatch(event -> event == null || event.getPatientId() == null
+                || event.getSequence() == null))
+            return ResponseEntity.badRequest().build();
+
+        knownPatientService.apply(events, event -> {
+            patientCache.invalidate(event.getPatientId());
+            if ("DELETED".equals(event.getChangeType())) {
+                lastKnownPatientStore.remove(event.getPatientId());
+                medicalRecordService.deleteMedicalRecordOfPatient(event.getPatientId());
+            }
+        });
+        return ResponseEntity.noContent().build();
+    }
+}
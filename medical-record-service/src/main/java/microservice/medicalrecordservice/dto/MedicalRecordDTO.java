@@ -22,5 +22,6 @@ public class MedicalRecordDTO {
     private String bloodType;
     private String allergies;
     private PatientDTO patient;
+    private long entryCount;
     private List<RecordEntryDTO> entries;
 }
@@ -15,4 +15,6 @@ public class PatientDTO {
     private String firstName;
     private LocalDate birthDate;
     private String contact;
+    // set when served from the last-known store while patient-service is unavailable
+    private boolean stale;
 }
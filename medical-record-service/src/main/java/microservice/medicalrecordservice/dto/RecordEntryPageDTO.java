@@ -0,0 +1,22 @@
+package microservice.medicalrecordservice.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordEntryPageDTO {
+    private List<RecordEntryDTO> entries;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
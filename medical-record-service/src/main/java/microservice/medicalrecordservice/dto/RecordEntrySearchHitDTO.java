@@ -0,0 +1,24 @@
+package microservice.medicalrecordservice.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import microservice.medicalrecordservice.models.RecordEntryType;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordEntrySearchHitDTO {
+    private Long id;
+    private Long recordId;
+    private Long patientId;
+    private LocalDate date;
+    private RecordEntryType type;
+    private float score;
+}
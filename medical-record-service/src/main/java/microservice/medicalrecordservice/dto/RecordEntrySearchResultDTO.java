@@ -0,0 +1,21 @@
+package microservice.medicalrecordservice.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordEntrySearchResultDTO {
+    private List<RecordEntrySearchHitDTO> hits;
+    private int page;
+    private int size;
+    private long totalHits;
+}
@@ -0,0 +1,7 @@
+package microservice.medicalrecordservice.exceptions;
+
+public class PatientNotFoundException extends RuntimeException {
+    public PatientNotFoundException(String message) {
+        super(message);
+    }
+}
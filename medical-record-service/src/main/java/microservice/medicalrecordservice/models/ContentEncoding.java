@@ -0,0 +1,6 @@
+package microservice.medicalrecordservice.models;
+
+public enum ContentEncoding {
+    PLAIN,
+    DEFLATE
+}
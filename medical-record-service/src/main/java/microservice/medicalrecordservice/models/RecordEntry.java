@@ -9,6 +9,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -18,13 +19,14 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "record_entries")
+@Table(name = "record_entries", indexes = @Index(name = "idx_record_entries_record_date_id",
+        columnList = "record_id, entry_date, id"))
 @Builder
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class RecordEntry {
+public class RecordEntry implements StoredEntryContent {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -40,6 +42,24 @@ public class RecordEntry {
     private RecordEntryType type;
 
     @Lob
-    @Column(name = "content", nullable = false)
+    @Column(name = "content")
     private String content;
+
+    @Lob
+    @Column(name = "compressed_content")
+    private byte[] compressedContent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "content_encoding", nullable = false)
+    @Builder.Default
+    private ContentEncoding contentEncoding = ContentEncoding.PLAIN;
+
+    @Column(name = "cold_segment")
+    private Integer coldSegment;
+
+    @Column(name = "cold_offset")
+    private Long coldOffset;
+
+    @Column(name = "cold_length")
+    private Integer coldLength;
 }
@@ -0,0 +1,19 @@
+package microservice.medicalrecordservice.models;
+
+/**
+ * Where and how the content of a record entry is stored: inline as text,
+ * inline compressed, or in a cold segment file.
+ */
+public interface StoredEntryContent {
+    String getContent();
+
+    byte[] getCompressedContent();
+
+    ContentEncoding getContentEncoding();
+
+    Integer getColdSegment();
+
+    Long getColdOffset();
+
+    Integer getColdLength();
+}
@@ -0,0 +1,10 @@
+package microservice.medicalrecordservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import microservice.medicalrecordservice.models.KnownPatient;
+
+@Repository
+public interface IKnownPatientRepository extends JpaRepository<KnownPatient, Long> {
+}
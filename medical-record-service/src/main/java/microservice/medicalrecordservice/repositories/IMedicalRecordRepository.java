@@ -1,5 +1,7 @@
 package microservice.medicalrecordservice.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,4 +14,6 @@ public interface IMedicalRecordRepository extends JpaRepository<MedicalRecord, L
     Optional<MedicalRecord> findByPatientId(Long patientId);
 
     boolean existsByPatientId(Long patientId);
+
+    List<MedicalRecord> findByPatientIdIn(Collection<Long> patientIds);
 }
@@ -1,13 +1,94 @@
 package microservice.medicalrecordservice.repositories;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.models.RecordEntryType;
 
 @Repository
 public interface IRecordEntryRepository extends JpaRepository<RecordEntry, Long> {
-    List<RecordEntry> findByRecordIdOrderByDateDescIdDesc(Long recordId);
+    List<RecordEntry> findByRecordIdAndIdIn(Long recordId, Collection<Long> ids);
+
+    @Query(value = """
+            select e.id as id, e.recordId as recordId, e.date as date, e.type as type
+            from RecordEntry e
+            where e.recordId = :recordId
+              and (:type is null or e.type = :type)
+              and (:fromDate is null or e.date >= :fromDate)
+              and (:toDate is null or e.date <= :toDate)
+            order by e.date desc, e.id desc
+            """, countQuery = """
+            select count(e) from RecordEntry e
+            where e.recordId = :recordId
+              and (:type is null or e.type = :type)
+              and (:fromDate is null or e.date >= :fromDate)
+              and (:toDate is null or e.date <= :toDate)
+            """)
+    Page<RecordEntryHeader> findHeaders(@Param("recordId") Long recordId,
+            @Param("type") RecordEntryType type,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            Pageable pageable);
+
+    @Query("""
+            select e.recordId as recordId, count(e) as entryCount
+            from RecordEntry e
+            where e.recordId in :recordIds
+            group by e.recordId
+            """)
+    List<RecordEntryCount> countByRecordIdIn(@Param("recordIds") Collection<Long> recordIds);
+
+    /** The latest entries of each record, at most perRecord each, newest first within a record. */
+    @Query(value = """
+            select id, record_id as recordId, entry_date as date, entry_type as type
+            from (select e.id, e.record_id, e.entry_date, e.entry_type,
+                         row_number() over (partition by e.record_id
+                                            order by e.entry_date desc, e.id desc) as position
+                  from record_entries e
+                  where e.record_id in (:recordIds)) ranked
+            where position <= :perRecord
+            order by record_id, entry_date desc, id desc
+            """, nativeQuery = true)
+    List<RecordEntryHeader> findLatestHeadersByRecordIdIn(@Param("recordIds") Collection<Long> recordIds,
+            @Param("perRecord") int perRecord);
+
+    @Query("""
+            select e.id as id, e.recordId as recordId, r.patientId as patientId, e.date as date,
+                   e.type as type, e.content as content, e.compressedContent as compressedContent,
+                   e.contentEncoding as contentEncoding, e.coldSegment as coldSegment,
+                   e.coldOffset as coldOffset, e.coldLength as coldLength
+            from RecordEntry e join MedicalRecord r on r.id = e.recordId
+            order by e.id
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<IndexedRecordEntry> streamForIndexing();
+
+    @Query("""
+            select e.id from RecordEntry e
+            where e.date < :cutoff and e.coldSegment is null
+            order by e.id
+            """)
+    List<Long> findArchivableIds(@Param("cutoff") LocalDate cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from RecordEntry e where e.recordId = :recordId")
+    int deleteByRecordId(@Param("recordId") Long recordId);
 }
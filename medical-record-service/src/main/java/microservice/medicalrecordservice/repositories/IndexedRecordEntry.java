@@ -0,0 +1,18 @@
+package microservice.medicalrecordservice.repositories;
+
+import java.time.LocalDate;
+
+import microservice.medicalrecordservice.models.RecordEntryType;
+import microservice.medicalrecordservice.models.StoredEntryContent;
+
+public interface IndexedRecordEntry extends StoredEntryContent {
+    Long getId();
+
+    Long getRecordId();
+
+    Long getPatientId();
+
+    LocalDate getDate();
+
+    RecordEntryType getType();
+}
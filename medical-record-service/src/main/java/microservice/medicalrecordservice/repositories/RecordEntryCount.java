@@ -0,0 +1,7 @@
+package microservice.medicalrecordservice.repositories;
+
+public interface RecordEntryCount {
+    Long getRecordId();
+
+    long getEntryCount();
+}
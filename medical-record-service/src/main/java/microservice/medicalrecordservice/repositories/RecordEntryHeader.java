@@ -0,0 +1,15 @@
+package microservice.medicalrecordservice.repositories;
+
+import java.time.LocalDate;
+
+import microservice.medicalrecordservice.models.RecordEntryType;
+
+public interface RecordEntryHeader {
+    Long getId();
+
+    Long getRecordId();
+
+    LocalDate getDate();
+
+    RecordEntryType getType();
+}
@@ -0,0 +1,97 @@
+package microservice.medicalrecordservice.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.repositories.IRecordEntryRepository;
+
+/**
+ * Periodically moves the content of old record entries out of the database
+ * into the cold segment store, in batches of one transaction each.
+ */
+@Component
+public class ColdEntryArchiver implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ColdEntryArchiver.class);
+
+    private final IRecordEntryRepository recordEntryRepository;
+    private final RecordEntryContentStore contentStore;
+    private final ColdSegmentStore coldSegmentStore;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final Duration interval;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cold-entry-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ColdEntryArchiver(IRecordEntryRepository recordEntryRepository, RecordEntryContentStore contentStore,
+            ColdSegmentStore coldSegmentStore, PlatformTransactionManager transactionManager,
+            @Value("${record-entries.cold.enabled:false}") boolean enabled,
+            @Value("${record-entries.cold.min-age-days:365}") int minAgeDays,
+            @Value("${record-entries.cold.interval:1h}") Duration interval,
+            @Value("${record-entries.cold.batch-size:500}") int batchSize) {
+        this.recordEntryRepository = recordEntryRepository;
+        this.contentStore = contentStore;
+        this.coldSegmentStore = coldSegmentStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled)
+            scheduler.scheduleWithFixedDelay(this::archiveQuietly, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    public long archiveOlderThan(LocalDate cutoff) {
+        long archived = 0;
+        while (true) {
+            List<Long> ids = recordEntryRepository.findArchivableIds(cutoff, Limit.of(batchSize));
+            if (ids.isEmpty())
+                return archived;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<RecordEntry> entries = recordEntryRepository.findAllById(ids);
+                entries.forEach(contentStore::moveToColdStorage);
+                coldSegmentStore.sync();
+            });
+            archived += ids.size();
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            long archived = archiveOlderThan(LocalDate.now().minusDays(minAgeDays));
+            if (archived > 0)
+                logger.info("Moved {} record entries to cold storage", archived);
+        } catch (RuntimeException e) {
+            logger.warn("Could not archive record entries", e);
+        }
+    }
+}
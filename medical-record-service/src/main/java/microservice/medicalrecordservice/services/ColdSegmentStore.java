@@ -0,0 +1,143 @@
+package microservice.medicalrecordservice.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only segment files holding the content of archived record entries.
+ * Each record is an entry id and a length followed by the payload; the
+ * database keeps the (segment, offset, length) of the payload. Reads go
+ * through read-only memory maps of the segments.
+ */
+@Component
+public class ColdSegmentStore implements DisposableBean {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dat");
+    private static final int RECORD_HEADER_BYTES = Long.BYTES + Integer.BYTES;
+
+    public record Location(int segment, long offset, int length) {
+    }
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final Map<Integer, MappedByteBuffer> mappedSegments = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private FileChannel activeChannel;
+    private int activeSegment;
+
+    public ColdSegmentStore(@Value("${record-entries.cold.dir:data/cold-entries}") String dir,
+            @Value("${record-entries.cold.max-segment-bytes:67108864}") long maxSegmentBytes) {
+        this.dir = Path.of(dir);
+        this.maxSegmentBytes = Math.min(maxSegmentBytes, Integer.MAX_VALUE);
+    }
+
+    public synchronized Location append(long entryId, byte[] payload) {
+        try {
+            FileChannel channel = activeChannel(RECORD_HEADER_BYTES + payload.length);
+            long position = channel.size();
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length)
+                    .putLong(entryId)
+                    .putInt(payload.length)
+                    .put(payload)
+                    .flip();
+            while (record.hasRemaining())
+                channel.write(record, position + record.position());
+            return new Location(activeSegment, position + RECORD_HEADER_BYTES, payload.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Makes every appended record durable; call before the database points at them. */
+    public synchronized void sync() {
+        if (activeChannel == null)
+            return;
+        try {
+            activeChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public byte[] read(int segment, long offset, int length) {
+        MappedByteBuffer buffer = mappedSegments.get(segment);
+        if (buffer == null || buffer.capacity() < offset + length)
+            buffer = map(segment);
+        byte[] payload = new byte[length];
+        buffer.get((int) offset, payload);
+        return payload;
+    }
+
+    public long sizeInBytes() {
+        try (Stream<Path> files = Files.exists(dir) ? Files.list(dir) : Stream.empty()) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (activeChannel != null)
+            activeChannel.close();
+    }
+
+    private FileChannel activeChannel(int recordBytes) throws IOException {
+        if (activeChannel == null) {
+            Files.createDirectories(dir);
+            activeSegment = Math.max(1, lastSegment());
+            activeChannel = open(activeSegment);
+        }
+        if (activeChannel.size() > 0 && activeChannel.size() + recordBytes > maxSegmentBytes) {
+            activeChannel.force(false);
+            activeChannel.close();
+            activeSegment++;
+            activeChannel = open(activeSegment);
+        }
+        return activeChannel;
+    }
+
+    private FileChannel open(int segment) throws IOException {
+        return FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    // re-mapped when a read goes past the mapping, i.e. the active segment has grown
+    private synchronized MappedByteBuffer map(int segment) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mappedSegments.put(segment, buffer);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return dir.resolve(String.format("segment-%05d.dat", segment));
+    }
+}
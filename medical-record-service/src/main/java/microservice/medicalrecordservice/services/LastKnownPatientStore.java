@@ -0,0 +1,80 @@
+package microservice.medicalrecordservice.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import microservice.medicalrecordservice.dto.PatientDTO;
+
+/**
+ * Last version of each patient fetched from patient-service, kept much longer
+ * than the near cache. It is only read when patient-service is unavailable,
+ * to answer with a copy flagged as stale instead of failing. Ids served that
+ * way are remembered so they can be refreshed once the service is back.
+ */
+@Component
+public class LastKnownPatientStore {
+    private final Cache<Long, PatientDTO> patients;
+    private final Set<Long> servedStale = ConcurrentHashMap.newKeySet();
+
+    public LastKnownPatientStore(MeterRegistry meterRegistry,
+            @Value("${patient-cache.last-known.max-age:24h}") Duration maxAge,
+            @Value("${patient-cache.last-known.max-size:100000}") long maxSize) {
+        this.patients = Caffeine.newBuilder()
+                .expireAfterWrite(maxAge)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, patients, "patients.last-known");
+    }
+
+    public void put(PatientDTO patient) {
+        patients.put(patient.getId(), patient);
+        servedStale.remove(patient.getId());
+    }
+
+    public void remove(Long patientId) {
+        patients.invalidate(patientId);
+        servedStale.remove(patientId);
+    }
+
+    /** Returns a stale copy of the patient, or null if it was never fetched. */
+    public PatientDTO getStale(Long patientId) {
+        PatientDTO patient = patients.getIfPresent(patientId);
+        if (patient == null)
+            return null;
+
+        servedStale.add(patientId);
+        return PatientDTO.builder()
+                .id(patient.getId())
+                .name(patient.getName())
+                .firstName(patient.getFirstName())
+                .birthDate(patient.getBirthDate())
+                .contact(patient.getContact())
+                .stale(true)
+                .build();
+    }
+
+    public List<Long> drainServedStale() {
+        List<Long> patientIds = new ArrayList<>(servedStale);
+        servedStale.removeAll(patientIds);
+        return patientIds;
+    }
+
+    public void markServedStale(Collection<Long> patientIds) {
+        patientIds.stream()
+                .filter(patientId -> patients.getIfPresent(patientId) != null)
+                .forEach(servedStale::add);
+    }
+}
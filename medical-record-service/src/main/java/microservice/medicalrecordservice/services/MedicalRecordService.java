@@ -1,33 +1,60 @@
 package microservice.medicalrecordservice.services;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import io.micrometer.core.annotation.Timed;
 import microservice.medicalrecordservice.dto.CreateMedicalRecordRequestDTO;
 import microservice.medicalrecordservice.dto.CreateRecordEntryRequestDTO;
 import microservice.medicalrecordservice.dto.MedicalRecordDTO;
 import microservice.medicalrecordservice.dto.PatientDTO;
 import microservice.medicalrecordservice.dto.RecordEntryDTO;
+import microservice.medicalrecordservice.dto.RecordEntryPageDTO;
+import microservice.medicalrecordservice.dto.RecordEntrySearchResultDTO;
+import microservice.medicalrecordservice.exceptions.PatientNotFoundException;
+import microservice.medicalrecordservice.models.KnownPatient;
 import microservice.medicalrecordservice.models.MedicalRecord;
 import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.models.RecordEntryType;
 import microservice.medicalrecordservice.repositories.IMedicalRecordRepository;
 import microservice.medicalrecordservice.repositories.IRecordEntryRepository;
+import microservice.medicalrecordservice.repositories.RecordEntryCount;
+import microservice.medicalrecordservice.repositories.RecordEntryHeader;
 
 @Service
+@Timed("service.invocations")
 public class MedicalRecordService {
     private final IMedicalRecordRepository medicalRecordRepository;
     private final IRecordEntryRepository recordEntryRepository;
     private final PatientLookupService patientLookupService;
+    private final RecordEntrySearchIndex searchIndex;
+    private final RecordEntryContentStore contentStore;
+    private final KnownPatientService knownPatientService;
 
     public MedicalRecordService(IMedicalRecordRepository medicalRecordRepository,
             IRecordEntryRepository recordEntryRepository,
-            PatientLookupService patientLookupService) {
+            PatientLookupService patientLookupService,
+            RecordEntrySearchIndex searchIndex,
+            RecordEntryContentStore contentStore,
+            KnownPatientService knownPatientService) {
         this.medicalRecordRepository = medicalRecordRepository;
         this.recordEntryRepository = recordEntryRepository;
         this.patientLookupService = patientLookupService;
+        this.searchIndex = searchIndex;
+        this.contentStore = contentStore;
+        this.knownPatientService = knownPatientService;
     }
 
     public MedicalRecordDTO createMedicalRecord(CreateMedicalRecordRequestDTO request) {
@@ -35,7 +62,13 @@ public class MedicalRecordService {
             throw new IllegalArgumentException("patientId is required");
         }
 
-        patientLookupService.getPatientById(request.getPatientId());
+        KnownPatient known = knownPatientService.find(request.getPatientId());
+        if (known != null && known.isDeleted()) {
+            throw new PatientNotFoundException("Patient not found id=" + request.getPatientId());
+        }
+        CompletableFuture<PatientDTO> patientLookup = patientLookupService.getPatientByIdAsync(request.getPatientId());
+        // a patient known from the change feed needs no check by patient-service, only its details do
+        PatientDTO patient = known != null ? null : PatientLookupService.join(patientLookup);
 
         if (medicalRecordRepository.existsByPatientId(request.getPatientId())) {
             throw new IllegalStateException("Medical record already exists for patient");
@@ -47,27 +80,92 @@ public class MedicalRecordService {
                 .allergies(request.getAllergies())
                 .build());
 
-        PatientDTO patient = patientLookupService.getPatientById(saved.getPatientId());
-        return toMedicalRecordDTO(saved, patient);
+        if (known != null) {
+            patient = patientLookup.exceptionally(failure -> null).join();
+        }
+        return toMedicalRecordDTO(saved, patient, List.of(), 0);
     }
 
-    public MedicalRecordDTO getMedicalRecordByPatientId(Long patientId) {
+    public MedicalRecordDTO getMedicalRecordByPatientId(Long patientId, int latestEntries) {
         if (patientId == null) {
             throw new IllegalArgumentException("patientId is required");
         }
 
-        PatientDTO patient = patientLookupService.getPatientById(patientId);
-        MedicalRecord record = medicalRecordRepository.findByPatientId(patientId)
-                .orElseThrow(() -> new NoSuchElementException("Medical record not found"));
+        CompletableFuture<PatientDTO> patientLookup = patientLookupService.getPatientByIdAsync(patientId);
+        MedicalRecord record = findRecordByPatientId(patientId);
 
-        return toMedicalRecordDTO(record, patient);
+        return toMedicalRecordSummary(record, patientLookup, latestEntries);
     }
 
-    public MedicalRecordDTO getMedicalRecordById(Long recordId) {
+    public List<MedicalRecordDTO> getMedicalRecordsByPatientIds(Collection<Long> patientIds, int latestEntries) {
+        if (patientIds == null || patientIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<MedicalRecord> records = medicalRecordRepository.findByPatientIdIn(patientIds);
+        if (records.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> recordIds = records.stream().map(MedicalRecord::getId).toList();
+        Map<Long, Long> entryCounts = recordEntryRepository.countByRecordIdIn(recordIds).stream()
+                .collect(Collectors.toMap(RecordEntryCount::getRecordId, RecordEntryCount::getEntryCount));
+        Map<Long, List<RecordEntryDTO>> latestByRecordId = recordEntryRepository
+                .findLatestHeadersByRecordIdIn(recordIds, latestEntries)
+                .stream()
+                .collect(Collectors.groupingBy(RecordEntryHeader::getRecordId,
+                        Collectors.mapping(this::toRecordEntryDTO, Collectors.toList())));
+        Map<Long, PatientDTO> patients = patientLookupService.getPatientsByIds(
+                records.stream().map(MedicalRecord::getPatientId).toList());
+
+        return records.stream()
+                .map(record -> toMedicalRecordDTO(record, patients.get(record.getPatientId()),
+                        latestByRecordId.getOrDefault(record.getId(), List.of()),
+                        entryCounts.getOrDefault(record.getId(), 0L)))
+                .toList();
+    }
+
+    public MedicalRecordDTO getMedicalRecordById(Long recordId, int latestEntries) {
         MedicalRecord record = medicalRecordRepository.findById(recordId)
                 .orElseThrow(() -> new NoSuchElementException("Medical record not found"));
-        PatientDTO patient = patientLookupService.getPatientById(record.getPatientId());
-        return toMedicalRecordDTO(record, patient);
+        CompletableFuture<PatientDTO> patientLookup = patientLookupService.getPatientByIdAsync(record.getPatientId());
+        return toMedicalRecordSummary(record, patientLookup, latestEntries);
+    }
+
+    public RecordEntryPageDTO getEntriesByPatientId(Long patientId, RecordEntryType type, LocalDate from,
+            LocalDate to, int page, int size) {
+        if (patientId == null) {
+            throw new IllegalArgumentException("patientId is required");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        MedicalRecord record = findRecordByPatientId(patientId);
+        Page<RecordEntryHeader> headers = recordEntryRepository.findHeaders(record.getId(), type, from, to,
+                PageRequest.of(page, size));
+
+        return RecordEntryPageDTO.builder()
+                .entries(headers.getContent().stream().map(this::toRecordEntryDTO).toList())
+                .page(headers.getNumber())
+                .size(headers.getSize())
+                .totalElements(headers.getTotalElements())
+                .totalPages(headers.getTotalPages())
+                .build();
+    }
+
+    public List<RecordEntryDTO> getEntryContentsByPatientId(Long patientId, Collection<Long> entryIds) {
+        if (patientId == null) {
+            throw new IllegalArgumentException("patientId is required");
+        }
+        if (entryIds == null || entryIds.isEmpty()) {
+            return List.of();
+        }
+
+        MedicalRecord record = findRecordByPatientId(patientId);
+        return recordEntryRepository.findByRecordIdAndIdIn(record.getId(), entryIds).stream()
+                .map(this::toRecordEntryDTO)
+                .toList();
     }
 
     public RecordEntryDTO addEntryByPatientId(Long patientId, CreateRecordEntryRequestDTO request) {
@@ -78,25 +176,78 @@ public class MedicalRecordService {
             throw new IllegalArgumentException("type and content are required");
         }
 
-        MedicalRecord record = medicalRecordRepository.findByPatientId(patientId)
-                .orElseThrow(() -> new NoSuchElementException("Medical record not found"));
+        MedicalRecord record = findRecordByPatientId(patientId);
 
-        RecordEntry saved = recordEntryRepository.save(RecordEntry.builder()
+        RecordEntry entry = RecordEntry.builder()
                 .recordId(record.getId())
                 .date(request.getDate() != null ? request.getDate() : LocalDate.now())
                 .type(request.getType())
-                .content(request.getContent())
-                .build());
+                .build();
+        contentStore.write(entry, request.getContent());
+        RecordEntry saved = recordEntryRepository.save(entry);
+        searchIndex.index(saved, record.getPatientId(), request.getContent());
 
-        return toRecordEntryDTO(saved);
+        return toRecordEntryDTO(saved, request.getContent());
     }
 
-    private MedicalRecordDTO toMedicalRecordDTO(MedicalRecord record, PatientDTO patient) {
-        List<RecordEntryDTO> entries = recordEntryRepository.findByRecordIdOrderByDateDescIdDesc(record.getId())
-                .stream()
-                .map(this::toRecordEntryDTO)
-                .toList();
+    public RecordEntrySearchResultDTO searchEntries(String query, Long patientId, RecordEntryType type,
+            LocalDate from, LocalDate to, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("query is required");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
 
+        return searchIndex.search(query, patientId, type, from, to, page, size);
+    }
+
+    public RecordEntrySearchResultDTO searchEntriesByPatientId(Long patientId, String query, RecordEntryType type,
+            LocalDate from, LocalDate to, int page, int size) {
+        if (patientId == null) {
+            throw new IllegalArgumentException("patientId is required");
+        }
+
+        findRecordByPatientId(patientId);
+        return searchEntries(query, patientId, type, from, to, page, size);
+    }
+
+    /**
+     * Deletes the record of a deleted patient with its entries. The entries
+     * leave the search index once the deletion is committed, so a rollback
+     * keeps them searchable.
+     */
+    @Transactional
+    public void deleteMedicalRecordOfPatient(Long patientId) {
+        medicalRecordRepository.findByPatientId(patientId).ifPresent(record -> {
+            recordEntryRepository.deleteByRecordId(record.getId());
+            medicalRecordRepository.delete(record);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    searchIndex.deleteByPatientId(patientId);
+                }
+            });
+        });
+    }
+
+    private MedicalRecord findRecordByPatientId(Long patientId) {
+        return medicalRecordRepository.findByPatientId(patientId)
+                .orElseThrow(() -> new NoSuchElementException("Medical record not found"));
+    }
+
+    private MedicalRecordDTO toMedicalRecordSummary(MedicalRecord record, CompletableFuture<PatientDTO> patientLookup,
+            int latestEntries) {
+        Page<RecordEntryHeader> latest = recordEntryRepository.findHeaders(record.getId(), null, null, null,
+                PageRequest.of(0, latestEntries));
+        PatientDTO patient = PatientLookupService.join(patientLookup);
+        return toMedicalRecordDTO(record, patient,
+                latest.getContent().stream().map(this::toRecordEntryDTO).toList(),
+                latest.getTotalElements());
+    }
+
+    private MedicalRecordDTO toMedicalRecordDTO(MedicalRecord record, PatientDTO patient,
+            List<RecordEntryDTO> entries, long entryCount) {
         return MedicalRecordDTO.builder()
                 .id(record.getId())
                 .patientId(record.getPatientId())
@@ -105,17 +256,31 @@ public class MedicalRecordService {
                 .bloodType(record.getBloodType())
                 .allergies(record.getAllergies())
                 .patient(patient)
+                .entryCount(entryCount)
                 .entries(entries)
                 .build();
     }
 
+    private RecordEntryDTO toRecordEntryDTO(RecordEntryHeader header) {
+        return RecordEntryDTO.builder()
+                .id(header.getId())
+                .recordId(header.getRecordId())
+                .date(header.getDate())
+                .type(header.getType())
+                .build();
+    }
+
     private RecordEntryDTO toRecordEntryDTO(RecordEntry entry) {
+        return toRecordEntryDTO(entry, contentStore.read(entry));
+    }
+
+    private RecordEntryDTO toRecordEntryDTO(RecordEntry entry, String content) {
         return RecordEntryDTO.builder()
                 .id(entry.getId())
                 .recordId(entry.getRecordId())
                 .date(entry.getDate())
                 .type(entry.getType())
-                .content(entry.getContent())
+                .content(content)
                 .build();
     }
 }
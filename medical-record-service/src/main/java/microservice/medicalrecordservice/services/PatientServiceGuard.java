@@ -0,0 +1,66 @@
+package microservice.medicalrecordservice.services;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import microservice.medicalrecordservice.exceptions.PatientServiceUnavailableException;
+
+/**
+ * Runs remote patient-service calls under the patientService bulkhead, time
+ * limiter and retry policies. Each attempt runs on its own virtual thread that
+ * holds the bulkhead permit until the remote side answers, so attempts given
+ * up by the time limiter still count against the bulkhead.
+ */
+@Component
+public class PatientServiceGuard implements DisposableBean {
+    private static final String INSTANCE = "patientService";
+
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final Retry retry;
+    private final ExecutorService executor;
+
+    public PatientServiceGuard(BulkheadRegistry bulkheadRegistry, TimeLimiterRegistry timeLimiterRegistry,
+            RetryRegistry retryRegistry) {
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+        this.timeLimiter = timeLimiterRegistry.timeLimiter(INSTANCE);
+        this.retry = retryRegistry.retry(INSTANCE);
+        ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+        this.executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                contextSnapshotFactory::captureAll);
+    }
+
+    public <T> T call(Supplier<T> remoteCall) {
+        Callable<T> attempt = () -> timeLimiter.executeFutureSupplier(
+                () -> executor.submit(() -> bulkhead.executeSupplier(remoteCall)));
+        try {
+            return retry.executeCallable(attempt);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (TimeoutException e) {
+            throw new PatientServiceUnavailableException("Patient service did not answer within "
+                    + timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toMillis() + " ms", e);
+        } catch (Exception e) {
+            throw new PatientServiceUnavailableException("Patient service call failed", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
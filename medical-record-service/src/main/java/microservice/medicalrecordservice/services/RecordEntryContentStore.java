@@ -0,0 +1,105 @@
+package microservice.medicalrecordservice.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import microservice.medicalrecordservice.models.ContentEncoding;
+import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.models.StoredEntryContent;
+
+/**
+ * Encodes record entry content on write and decodes it on read. Content at or
+ * above the threshold is Deflate-compressed when that makes it smaller;
+ * archived content is read back from the cold segment store.
+ */
+@Component
+public class RecordEntryContentStore {
+    private final ColdSegmentStore coldSegmentStore;
+    private final int thresholdBytes;
+    private final int compressionLevel;
+
+    public RecordEntryContentStore(ColdSegmentStore coldSegmentStore,
+            @Value("${record-entries.compression.threshold-bytes:1024}") int thresholdBytes,
+            @Value("${record-entries.compression.level:6}") int compressionLevel) {
+        this.coldSegmentStore = coldSegmentStore;
+        this.thresholdBytes = thresholdBytes;
+        this.compressionLevel = compressionLevel;
+    }
+
+    public void write(RecordEntry entry, String content) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length >= thresholdBytes) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                entry.setContentEncoding(ContentEncoding.DEFLATE);
+                entry.setCompressedContent(compressed);
+                entry.setContent(null);
+                return;
+            }
+        }
+        entry.setContentEncoding(ContentEncoding.PLAIN);
+        entry.setContent(content);
+        entry.setCompressedContent(null);
+    }
+
+    public String read(StoredEntryContent stored) {
+        if (stored.getColdSegment() != null) {
+            byte[] payload = coldSegmentStore.read(stored.getColdSegment(), stored.getColdOffset(),
+                    stored.getColdLength());
+            return stored.getContentEncoding() == ContentEncoding.DEFLATE ? inflate(payload)
+                    : new String(payload, StandardCharsets.UTF_8);
+        }
+        return stored.getContentEncoding() == ContentEncoding.DEFLATE ? inflate(stored.getCompressedContent())
+                : stored.getContent();
+    }
+
+    /**
+     * Appends the entry's encoded content to the cold store and points the
+     * entry at it. The caller must sync the store before saving the entry.
+     */
+    public void moveToColdStorage(RecordEntry entry) {
+        byte[] payload = entry.getContentEncoding() == ContentEncoding.DEFLATE ? entry.getCompressedContent()
+                : entry.getContent().getBytes(StandardCharsets.UTF_8);
+        ColdSegmentStore.Location location = coldSegmentStore.append(entry.getId(), payload);
+        entry.setColdSegment(location.segment());
+        entry.setColdOffset(location.offset());
+        entry.setColdLength(location.length());
+        entry.setContent(null);
+        entry.setCompressedContent(null);
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished())
+                out.write(buffer, 0, deflater.deflate(buffer));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] compressed) {
+        Inflater inflater = new Inflater(true);
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed), inflater)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
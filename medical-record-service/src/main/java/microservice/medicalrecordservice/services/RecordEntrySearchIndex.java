@@ -0,0 +1,270 @@
+package microservice.medicalrecordservice.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import microservice.medicalrecordservice.dto.RecordEntrySearchHitDTO;
+import microservice.medicalrecordservice.dto.RecordEntrySearchResultDTO;
+import microservice.medicalrecordservice.models.RecordEntry;
+import microservice.medicalrecordservice.models.RecordEntryType;
+import microservice.medicalrecordservice.repositories.IRecordEntryRepository;
+import microservice.medicalrecordservice.repositories.IndexedRecordEntry;
+
+/**
+ * Lucene index of record entries on local disk. New entries are indexed as
+ * they are added and become searchable on the next refresh; commits happen
+ * in the background. At startup the index is rebuilt from the database when
+ * its document count does not match the entry count.
+ */
+@Component
+public class RecordEntrySearchIndex implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(RecordEntrySearchIndex.class);
+
+    private static final String ID = "id";
+    private static final String RECORD_ID = "recordId";
+    private static final String PATIENT_ID = "patientId";
+    private static final String DATE = "date";
+    private static final String TYPE = "type";
+    private static final String CONTENT = "content";
+
+    private final IRecordEntryRepository recordEntryRepository;
+    private final RecordEntryContentStore contentStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Path indexDir;
+    private final Duration commitInterval;
+    private final Analyzer analyzer = new EntryContentAnalyzer();
+    private final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-committer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public RecordEntrySearchIndex(IRecordEntryRepository recordEntryRepository,
+            RecordEntryContentStore contentStore, PlatformTransactionManager transactionManager,
+            @Value("${search.index-dir:data/medical-record-index}") String indexDir,
+            @Value("${search.commit-interval:5s}") Duration commitInterval) {
+        this.recordEntryRepository = recordEntryRepository;
+        this.contentStore = contentStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.indexDir = Path.of(indexDir);
+        this.commitInterval = commitInterval;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        directory = FSDirectory.open(indexDir);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+
+        long indexed = writer.getDocStats().numDocs;
+        long stored = recordEntryRepository.count();
+        if (indexed != stored) {
+            logger.info("Search index has {} entries but the database has {}, rebuilding", indexed, stored);
+            rebuild();
+        }
+
+        committer.scheduleWithFixedDelay(this::commitQuietly, commitInterval.toMillis(), commitInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        committer.shutdown();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    public void index(RecordEntry entry, Long patientId, String content) {
+        try {
+            writer.updateDocument(new Term(ID, entry.getId().toString()), toDocument(entry.getId(),
+                    entry.getRecordId(), patientId, entry.getDate(), entry.getType(), content));
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            // the entry is saved; the count check at the next startup will reindex it
+            logger.warn("Could not index record entry {}", entry.getId(), e);
+        }
+    }
+
+    public void deleteByPatientId(Long patientId) {
+        try {
+            writer.deleteDocuments(new Term(PATIENT_ID, patientId.toString()));
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            // the count check at the next startup will rebuild the index
+            logger.warn("Could not remove the entries of patient {} from the search index", patientId, e);
+        }
+    }
+
+    public RecordEntrySearchResultDTO search(String text, Long patientId, RecordEntryType type, LocalDate from,
+            LocalDate to, int page, int size) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(parse(text), BooleanClause.Occur.MUST);
+        if (patientId != null)
+            query.add(new TermQuery(new Term(PATIENT_ID, patientId.toString())), BooleanClause.Occur.FILTER);
+        if (type != null)
+            query.add(new TermQuery(new Term(TYPE, type.name())), BooleanClause.Occur.FILTER);
+        if (from != null || to != null)
+            query.add(LongPoint.newRangeQuery(DATE,
+                    from != null ? from.toEpochDay() : Long.MIN_VALUE,
+                    to != null ? to.toEpochDay() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        return search(query.build(), page, size);
+    }
+
+    private RecordEntrySearchResultDTO search(Query query, int page, int size) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, (page + 1) * size);
+                StoredFields storedFields = searcher.storedFields();
+                List<RecordEntrySearchHitDTO> hits = new ArrayList<>(size);
+                for (int i = page * size; i < top.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = top.scoreDocs[i];
+                    hits.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+                }
+                long totalHits = top.totalHits.relation == TotalHits.Relation.EQUAL_TO ? top.totalHits.value
+                        : searcher.count(query);
+
+                return RecordEntrySearchResultDTO.builder()
+                        .hits(hits)
+                        .page(page)
+                        .size(size)
+                        .totalHits(totalHits)
+                        .build();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Query parse(String text) {
+        QueryParser parser = new QueryParser(CONTENT, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(text);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query", e);
+        }
+    }
+
+    private void rebuild() throws IOException {
+        long startedAt = System.nanoTime();
+        writer.deleteAll();
+        long count = transactionTemplate.execute(status -> {
+            try (Stream<IndexedRecordEntry> entries = recordEntryRepository.streamForIndexing()) {
+                return entries.peek(entry -> {
+                    try {
+                        writer.addDocument(toDocument(entry.getId(), entry.getRecordId(), entry.getPatientId(),
+                                entry.getDate(), entry.getType(), contentStore.read(entry)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).count();
+            }
+        });
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+        logger.info("Indexed {} record entries in {} ms", count, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private void commitQuietly() {
+        try {
+            if (writer.hasUncommittedChanges())
+                writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not commit the search index", e);
+        }
+    }
+
+    private static Document toDocument(Long id, Long recordId, Long patientId, LocalDate date, RecordEntryType type,
+            String content) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new StoredField(RECORD_ID, recordId));
+        document.add(new StringField(PATIENT_ID, patientId.toString(), Field.Store.YES));
+        document.add(new LongPoint(DATE, date.toEpochDay()));
+        document.add(new StoredField(DATE, date.toEpochDay()));
+        document.add(new StringField(TYPE, type.name(), Field.Store.YES));
+        document.add(new TextField(CONTENT, content, Field.Store.NO));
+        return document;
+    }
+
+    private static RecordEntrySearchHitDTO toHit(Document document, float score) {
+        return RecordEntrySearchHitDTO.builder()
+                .id(Long.valueOf(document.get(ID)))
+                .recordId(document.getField(RECORD_ID).numericValue().longValue())
+                .patientId(Long.valueOf(document.get(PATIENT_ID)))
+                .date(LocalDate.ofEpochDay(document.getField(DATE).numericValue().longValue()))
+                .type(RecordEntryType.valueOf(document.get(TYPE)))
+                .score(score)
+                .build();
+    }
+
+    /** Standard tokenization, lower-cased and accent-folded so "Hépatite" matches "hepatite". */
+    private static final class EntryContentAnalyzer extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            return new TokenStreamComponents(tokenizer, new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)));
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package microservice.medicalrecordservice.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import microservice.medicalrecordservice.dto.PatientDTO;
+import microservice.medicalrecordservice.clients.PatientClient;
+
+/**
+ * Re-fetches the patients served stale while the patientService circuit was
+ * open, as soon as it goes half-open (and again once it closes). The calls go
+ * through the breaker, so their outcome counts towards closing it.
+ */
+@Component
+public class StalePatientRefresher implements InitializingBean, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(StalePatientRefresher.class);
+    private static final int CHUNK_SIZE = 100;
+
+    private final CircuitBreaker circuitBreaker;
+    private final LastKnownPatientStore lastKnownPatientStore;
+    private final PatientCache patientCache;
+    private final PatientServiceGuard patientServiceGuard;
+    private final PatientClient patientClient;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stale-patient-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StalePatientRefresher(CircuitBreakerRegistry circuitBreakerRegistry,
+            LastKnownPatientStore lastKnownPatientStore, PatientCache patientCache,
+            PatientServiceGuard patientServiceGuard, PatientClient patientClient) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("patientService");
+        this.lastKnownPatientStore = lastKnownPatientStore;
+        this.patientCache = patientCache;
+        this.patientServiceGuard = patientServiceGuard;
+        this.patientClient = patientClient;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.State state = event.getStateTransition().getToState();
+            if (state == CircuitBreaker.State.HALF_OPEN || state == CircuitBreaker.State.CLOSED)
+                executor.execute(this::refresh);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void refresh() {
+        List<Long> patientIds = lastKnownPatientStore.drainServedStale();
+        for (int from = 0; from < patientIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = patientIds.subList(from, Math.min(from + CHUNK_SIZE, patientIds.size()));
+            Map<Long, PatientDTO> patients;
+            try {
+                patients = circuitBreaker.executeSupplier(
+                        () -> patientServiceGuard.call(() -> patientClient.getPatientsByIds(chunk)));
+            } catch (RuntimeException e) {
+                // still down (or no half-open permit left): retry on the next transition
+                lastKnownPatientStore.markServedStale(patientIds.subList(from, patientIds.size()));
+                logger.debug("Could not refresh {} stale patients", patientIds.size() - from, e);
+                return;
+            }
+            chunk.forEach(patientId -> {
+                PatientDTO patient = patients.get(patientId);
+                if (patient == null) {
+                    lastKnownPatientStore.remove(patientId);
+                    return;
+                }
+                patientCache.put(patient);
+                lastKnownPatientStore.put(patient);
+            });
+        }
+        if (!patientIds.isEmpty())
+            logger.info("Refreshed {} patients served stale while patient-service was unavailable", patientIds.size());
+    }
+}
@@ -0,0 +1,27 @@
+create table medical_records (
+    id bigint generated by default as identity,
+    patient_id bigint not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    blood_type varchar(255),
+    allergies varchar(255),
+    primary key (id),
+    constraint uk_medical_records_patient_id unique (patient_id)
+);
+
+create table record_entries (
+    id bigint generated by default as identity,
+    record_id bigint not null,
+    entry_date date not null,
+    entry_type varchar(255) not null check (entry_type in ('CONSULTATION','DIAGNOSIS','PRESCRIPTION','NOTE')),
+    content clob,
+    compressed_content blob,
+    content_encoding varchar(255) not null check (content_encoding in ('PLAIN','DEFLATE')),
+    cold_segment integer,
+    cold_offset bigint,
+    cold_length integer,
+    primary key (id)
+);
+
+-- entry pages of one record, newest first
+create index idx_record_entries_record_date_id on record_entries (record_id, entry_date, id);
@@ -0,0 +1,109 @@
+package microservice.medicalrecordservice.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import microservice.medicalrecordservice.dto.CreateMedicalRecordRequestDTO;
+import microservice.medicalrecordservice.dto.CreateRecordEntryRequestDTO;
+import microservice.medicalrecordservice.dto.MedicalRecordDTO;
+import microservice.medicalrecordservice.dto.PatientDTO;
+import microservice.medicalrecordservice.dto.RecordEntryDTO;
+import microservice.medicalrecordservice.models.RecordEntryType;
+
+/** The batch lookup must not issue statements per record or per entry. */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class MedicalRecordServiceStatementCountTest {
+    private static final AtomicLong nextPatientId = new AtomicLong(1_000);
+
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private PatientLookupService patientLookupService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(patientLookupService.getPatientByIdAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(PatientDTO.builder().build()));
+        when(patientLookupService.getPatientsByIds(anyCollection())).thenReturn(Map.of());
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithRecordsOrEntries() {
+        List<Long> few = createPatients(2, 1);
+        List<Long> many = createPatients(20, 12);
+
+        long fewStatements = statementsFor(few, 5);
+        long manyStatements = statementsFor(many, 5);
+
+        assertEquals(3, fewStatements);
+        assertEquals(fewStatements, manyStatements);
+    }
+
+    @Test
+    void returnsTheCountAndTheLatestEntriesOfEachRecord() {
+        List<Long> patientIds = createPatients(3, 4);
+        Long withoutEntries = createPatients(1, 0).get(0);
+
+        List<MedicalRecordDTO> records = medicalRecordService.getMedicalRecordsByPatientIds(
+                List.of(patientIds.get(0), patientIds.get(1), patientIds.get(2), withoutEntries), 2);
+
+        assertEquals(4, records.size());
+        for (MedicalRecordDTO record : records) {
+            if (record.getPatientId().equals(withoutEntries)) {
+                assertEquals(0, record.getEntryCount());
+                assertEquals(List.of(), record.getEntries());
+                continue;
+            }
+            assertEquals(4, record.getEntryCount());
+            assertEquals(List.of(LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 3)),
+                    record.getEntries().stream().map(RecordEntryDTO::getDate).toList());
+            record.getEntries().forEach(entry -> assertEquals(record.getId(), entry.getRecordId()));
+        }
+    }
+
+    private long statementsFor(List<Long> patientIds, int latestEntries) {
+        statistics.clear();
+        List<MedicalRecordDTO> records = medicalRecordService.getMedicalRecordsByPatientIds(patientIds, latestEntries);
+        assertEquals(patientIds.size(), records.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Long> createPatients(int patients, int entriesEach) {
+        List<Long> patientIds = LongStream.range(0, patients).map(i -> nextPatientId.incrementAndGet()).boxed().toList();
+        for (Long patientId : patientIds) {
+            medicalRecordService.createMedicalRecord(CreateMedicalRecordRequestDTO.builder().patientId(patientId).build());
+            for (int day = 1; day <= entriesEach; day++)
+                medicalRecordService.addEntryByPatientId(patientId, CreateRecordEntryRequestDTO.builder()
+                        .date(LocalDate.of(2024, 1, day))
+                        .type(RecordEntryType.NOTE)
+                        .content("entry " + day)
+                        .build());
+        }
+        return patientIds;
+    }
+}
@@ -0,0 +1,104 @@
+package microservice.patientservice.controllers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import microservice.patientservice.dto.BulkResultDTO;
+import microservice.patientservice.dto.BulkRow;
+
+/**
+ * Reads a bulk request body (a JSON array or NDJSON) row by row and hands the
+ * rows over in fixed-size chunks, so the whole payload is never held in
+ * memory. Rows that cannot be parsed are reported and skipped.
+ */
+@Component
+public class BulkRequestReader {
+    private final ObjectMapper objectMapper;
+
+    public BulkRequestReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> void read(HttpServletRequest request, Class<T> rowType, int chunkSize, BulkResultDTO result,
+            Consumer<List<BulkRow<T>>> chunkHandler) throws IOException {
+        ChunkCollector<T> collector = new ChunkCollector<>(chunkSize, chunkHandler);
+        try {
+            readRows(request, rowType, result, collector);
+        } finally {
+            // rows read before a truncated array are still imported
+            collector.flush();
+        }
+    }
+
+    private <T> void readRows(HttpServletRequest request, Class<T> rowType, BulkResultDTO result,
+            ChunkCollector<T> collector) throws IOException {
+        if (isNdjson(request)) {
+            BufferedReader reader = request.getReader();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+                int index = result.getReceived();
+                result.setReceived(index + 1);
+                try {
+                    collector.add(new BulkRow<>(index, objectMapper.readValue(line, rowType)));
+                } catch (JsonProcessingException e) {
+                    result.addError(index, "Malformed row: " + e.getOriginalMessage());
+                }
+            }
+        } else {
+            try (MappingIterator<T> rows = objectMapper.readerFor(rowType).readValues(request.getInputStream())) {
+                while (rows.hasNextValue()) {
+                    int index = result.getReceived();
+                    result.setReceived(index + 1);
+                    try {
+                        collector.add(new BulkRow<>(index, rows.nextValue()));
+                    } catch (JsonProcessingException e) {
+                        result.addError(index, "Malformed row: " + e.getOriginalMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isNdjson(HttpServletRequest request) {
+        return request.getContentType() != null
+                && MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+    }
+
+    private static final class ChunkCollector<T> {
+        private final int chunkSize;
+        private final Consumer<List<BulkRow<T>>> chunkHandler;
+        private List<BulkRow<T>> chunk;
+
+        private ChunkCollector(int chunkSize, Consumer<List<BulkRow<T>>> chunkHandler) {
+            this.chunkSize = chunkSize;
+            this.chunkHandler = chunkHandler;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        private void add(BulkRow<T> row) {
+            chunk.add(row);
+            if (chunk.size() >= chunkSize)
+                flush();
+        }
+
+        private void flush() {
+            if (chunk.isEmpty())
+                return;
+            chunkHandler.accept(chunk);
+            chunk = new ArrayList<>(chunkSize);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package microservice.patientservice.controllers;
+
+import microservice.patientservice.exceptions.VersionConflictException;
+
+/** Entity versions as strong ETags: version 3 is "3". */
+final class ETags {
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version an If-Match header asks for, null when absent or "*". A
+     * weak or unknown tag never matches a strong one, so it fails the
+     * precondition.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to the conflict below
+            }
+        }
+        throw new VersionConflictException("If-Match " + tag + " matches no version");
+    }
+}
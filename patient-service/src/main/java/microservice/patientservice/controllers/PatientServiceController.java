@@ -6,50 +6,130 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import microservice.patientservice.dto.PatientDTO;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
+import microservice.patientservice.services.PatientImportService;
 import microservice.patientservice.services.PatientService;
+import microservice.patientservice.dto.BulkResultDTO;
+import microservice.patientservice.dto.PatientPageDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import microservice.patientservice.models.Patient;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestHeader;
+import java.util.zip.GZIPOutputStream;
+import microservice.patientservice.services.PatientChangeVersions;
+import microservice.patientservice.services.PatientExportService;
+import microservice.patientservice.exceptions.VersionConflictException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/v1/patients")
 public class PatientServiceController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_RESULTS = 500;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String CHANGE_VERSION_HEADER = "X-Change-Version";
+
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final PatientExportService patientExportService;
+    private final PatientChangeVersions changeVersions;
+    private final BulkRequestReader bulkRequestReader;
+    private final ObjectMapper objectMapper;
+    private final int bulkChunkSize;
 
-    public PatientServiceController(PatientService patientService) {
+    public PatientServiceController(PatientService patientService, PatientImportService patientImportService,
+            PatientExportService patientExportService, PatientChangeVersions changeVersions,
+            BulkRequestReader bulkRequestReader, ObjectMapper objectMapper,
+            @Value("${bulk.chunk-size:500}") int bulkChunkSize) {
         this.patientService = patientService;
+        this.patientImportService = patientImportService;
+        this.patientExportService = patientExportService;
+        this.changeVersions = changeVersions;
+        this.bulkRequestReader = bulkRequestReader;
+        this.objectMapper = objectMapper;
+        if (bulkChunkSize < 1)
+            throw new IllegalArgumentException("bulk.chunk-size must be positive: " + bulkChunkSize);
+        this.bulkChunkSize = bulkChunkSize;
     }
 
     @PostMapping("")
     public ResponseEntity<PatientDTO> createPatient(@RequestBody PatientDTO patientDTO) {
         Patient patient = patientService.createPatient(patientDTO);
+        return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(toPatientDTO(patient));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, PatientDTO>> getPatientsByIds(@RequestBody List<Long> ids) {
+        if (ids == null || ids.size() > MAX_BATCH_SIZE)
+            return ResponseEntity.badRequest().build();
+
         return ResponseEntity.ok(
-                PatientDTO.builder()
-                        .id(patient.getId())
-                        .name(patient.getName())
-                        .firstName(patient.getFirstName())
-                        .birthDate(patient.getBirthDate())
-                        .contact(patient.getContact())
-                        .build());
+                patientService.getPatientsByIds(ids).stream()
+                        .map(this::toPatientDTO)
+                        .collect(Collectors.toMap(PatientDTO::getId, Function.identity())));
+    }
+
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BulkResultDTO> createPatients(HttpServletRequest request) {
+        BulkResultDTO result = new BulkResultDTO();
+        try {
+            bulkRequestReader.read(request, PatientDTO.class, bulkChunkSize, result,
+                    chunk -> patientImportService.importChunk(chunk, result));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PatientPageDTO> searchPatients(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE || (page + 1) * size > MAX_SEARCH_RESULTS)
+            return ResponseEntity.badRequest().build();
+        try {
+            Page<Patient> patients = patientService.searchPatients(name, firstName, birthDate, page, size);
+            return ResponseEntity.ok(PatientPageDTO.builder()
+                    .patients(patients.getContent().stream().map(this::toPatientDTO).toList())
+                    .page(patients.getNumber())
+                    .size(patients.getSize())
+                    .totalElements(patients.getTotalElements())
+                    .totalPages(patients.getTotalPages())
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<PatientDTO> getPatientById(@PathVariable Long id) {
         try {
             Patient patient = patientService.getPatientById(id);
-            return ResponseEntity.ok(
-                    PatientDTO.builder()
-                            .id(patient.getId())
-                            .name(patient.getName())
-                            .firstName(patient.getFirstName())
-                            .birthDate(patient.getBirthDate())
-                            .contact(patient.getContact())
-                            .build());
+            return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(toPatientDTO(patient));
         } catch (Exception e) {
             if (e.getMessage().equals("Patient not found"))
                 return ResponseEntity.notFound().build();
@@ -57,17 +137,38 @@ public class PatientServiceController {
         }
     }
 
+    /** With If-Match, updates only if the patient is still at that ETag, 412 otherwise. */
     @PutMapping("/{id}")
-    public ResponseEntity<PatientDTO> updatePatient(@PathVariable Long id, @RequestBody PatientDTO patientDTO) {
-        Patient patient = patientService.updatePatient(id, patientDTO);
-        return ResponseEntity.ok(
-                PatientDTO.builder()
-                        .id(patient.getId())
-                        .name(patient.getName())
-                        .firstName(patient.getFirstName())
-                        .birthDate(patient.getBirthDate())
-                        .contact(patient.getContact())
-                        .build());
+    public ResponseEntity<PatientDTO> updatePatient(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody PatientDTO patientDTO) {
+        try {
+            Patient patient = patientService.updatePatient(id, patientDTO, ETags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(toPatientDTO(patient));
+        } catch (VersionConflictException e) {
+            return conflict(ifMatch);
+        } catch (RuntimeException e) {
+            if ("Patient not found".equals(e.getMessage()))
+                return ResponseEntity.notFound().build();
+            throw e;
+        }
+    }
+
+    /** Sets the non-null fields only; If-Match as for PUT. */
+    @PatchMapping("/{id}")
+    public ResponseEntity<PatientDTO> patchPatient(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody PatientDTO changes) {
+        try {
+            Patient patient = patientService.patchPatient(id, changes, ETags.parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(toPatientDTO(patient));
+        } catch (VersionConflictException e) {
+            return conflict(ifMatch);
+        } catch (RuntimeException e) {
+            if ("Patient not found".equals(e.getMessage()))
+                return ResponseEntity.notFound().build();
+            throw e;
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -77,17 +178,83 @@ public class PatientServiceController {
     }
 
     @GetMapping("")
-    public ResponseEntity<List<PatientDTO>> getAllPatients() {
-        List<Patient> patients = patientService.getAllPatients();
-        return ResponseEntity.ok(
-                patients.stream()
-                        .map(patient -> PatientDTO.builder()
-                                .id(patient.getId())
-                                .name(patient.getName())
-                                .firstName(patient.getFirstName())
-                                .birthDate(patient.getBirthDate())
-                                .contact(patient.getContact())
-                                .build())
-                        .collect(Collectors.toList()));
+    public ResponseEntity<List<PatientDTO>> getAllPatients(@RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Patient> patients = patientService.getPatientsAfter(cursor, pageSize + 1);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (patients.size() > pageSize) {
+            patients = patients.subList(0, pageSize);
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(patients.get(pageSize - 1).getId()));
+        }
+        return response.body(patients.stream().map(this::toPatientDTO).collect(Collectors.toList()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPatients() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .setRootValueSeparator(null);
+            patientService.streamAllPatients(patient -> {
+                try {
+                    generator.writeObject(toPatientDTO(patient));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Streams all patients, or with since the changes after that version,
+     * tombstones included, in the binary format of PatientExportService;
+     * gzip-compressed when the client accepts it. X-Change-Version is the
+     * since to pass on the next call.
+     */
+    @GetMapping(value = "/export", produces = PatientExportService.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (since != null && since < 0)
+            return ResponseEntity.badRequest().build();
+
+        // taken before the export reads anything, so every change up to it is in the export
+        long changeVersion = changeVersions.committedUpTo();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            if (!gzip) {
+                patientExportService.export(since, outputStream);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(outputStream, 64 * 1024);
+            patientExportService.export(since, compressed);
+            compressed.finish();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PatientExportService.MEDIA_TYPE))
+                .header(CHANGE_VERSION_HEADER, String.valueOf(changeVersion));
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    // a failed If-Match is a failed precondition, a lost race without one a plain conflict
+    private static <T> ResponseEntity<T> conflict(String ifMatch) {
+        return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+    }
+
+    private PatientDTO toPatientDTO(Patient patient) {
+        return PatientDTO.builder()
+                .id(patient.getId())
+                .name(patient.getName())
+                .firstName(patient.getFirstName())
+                .birthDate(patient.getBirthDate())
+                .contact(patient.getContact())
+                .version(patient.getVersion())
+                .build();
     }
 }
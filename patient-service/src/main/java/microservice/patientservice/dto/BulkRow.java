@@ -0,0 +1,4 @@
+package microservice.patientservice.dto;
+
+public record BulkRow<T>(int index, T value) {
+}
@@ -14,4 +14,5 @@ public class PatientDTO {
     private String firstName;
     private LocalDate birthDate;
     private String contact;
+    private Long version;
 }
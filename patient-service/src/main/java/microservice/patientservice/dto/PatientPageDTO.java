@@ -0,0 +1,17 @@
+package microservice.patientservice.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+public class PatientPageDTO {
+    private List<PatientDTO> patients;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
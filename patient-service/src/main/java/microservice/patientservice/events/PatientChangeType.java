@@ -0,0 +1,7 @@
+package microservice.patientservice.events;
+
+public enum PatientChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
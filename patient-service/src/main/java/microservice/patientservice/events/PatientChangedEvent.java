@@ -0,0 +1,5 @@
+package microservice.patientservice.events;
+
+/** A change as delivered to subscribers; sequence orders the changes of a patient. */
+public record PatientChangedEvent(Long sequence, Long patientId, PatientChangeType changeType) {
+}
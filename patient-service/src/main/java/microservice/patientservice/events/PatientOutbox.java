@@ -0,0 +1,49 @@
+package microservice.patientservice.events;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import microservice.patientservice.models.PatientEvent;
+import microservice.patientservice.repositories.IPatientEventRepository;
+
+/**
+ * Records patient changes in the outbox table, one row per subscriber. It
+ * must join the transaction of the change, so a change is committed if and
+ * only if its events are.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class PatientOutbox {
+    private final IPatientEventRepository patientEventRepository;
+    private final List<String> subscribers;
+
+    public PatientOutbox(IPatientEventRepository patientEventRepository,
+            @Value("${patient-events.subscribers:}") List<String> subscribers) {
+        this.patientEventRepository = patientEventRepository;
+        this.subscribers = subscribers;
+    }
+
+    public void record(Long patientId, PatientChangeType changeType) {
+        recordAll(List.of(patientId), changeType);
+    }
+
+    public void recordAll(Collection<Long> patientIds, PatientChangeType changeType) {
+        if (subscribers.isEmpty())
+            return;
+        LocalDateTime now = LocalDateTime.now();
+        patientEventRepository.saveAll(patientIds.stream()
+                .flatMap(patientId -> subscribers.stream().map(subscriber -> PatientEvent.builder()
+                        .subscriber(subscriber)
+                        .patientId(patientId)
+                        .changeType(changeType)
+                        .createdAt(now)
+                        .build()))
+                .toList());
+    }
+}
@@ -0,0 +1,110 @@
+package microservice.patientservice.events;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import microservice.patientservice.models.PatientEvent;
+import microservice.patientservice.repositories.IPatientEventRepository;
+
+/**
+ * Delivers the outbox to the services that keep a copy of patients, oldest
+ * first and in batches, deleting each batch once its subscriber accepted it.
+ * Delivery is at least once: a batch whose delete fails is sent again, and
+ * subscribers apply events idempotently by sequence.
+ */
+@Component
+public class PatientOutboxRelay implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PatientOutboxRelay.class);
+
+    private final IPatientEventRepository patientEventRepository;
+    private final RestClient restClient;
+    private final List<String> subscribers;
+    private final Duration interval;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "patient-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // only touched by the relay thread
+    private final Set<String> failing = new HashSet<>();
+
+    public PatientOutboxRelay(IPatientEventRepository patientEventRepository,
+            RestClient.Builder loadBalancedRestClientBuilder,
+            @Value("${patient-events.subscribers:}") List<String> subscribers,
+            @Value("${patient-events.relay.interval:250ms}") Duration interval,
+            @Value("${patient-events.relay.batch-size:500}") int batchSize) {
+        this.patientEventRepository = patientEventRepository;
+        this.restClient = loadBalancedRestClientBuilder.build();
+        this.subscribers = subscribers;
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!subscribers.isEmpty())
+            scheduler.scheduleWithFixedDelay(this::relayQuietly, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void relayQuietly() {
+        for (String subscriber : subscribers) {
+            try {
+                deliver(subscriber);
+            } catch (RuntimeException e) {
+                log.warn("Could not relay patient events to {}", subscriber, e);
+            }
+        }
+    }
+
+    private void deliver(String subscriber) {
+        while (true) {
+            List<PatientEvent> batch = patientEventRepository.findBySubscriberOrderByIdAsc(subscriber,
+                    Limit.of(batchSize));
+            if (batch.isEmpty())
+                return;
+            try {
+                restClient.post()
+                        .uri("http://{service}/internal/patient-changes", subscriber)
+                        .body(batch.stream()
+                                .map(event -> new PatientChangedEvent(event.getId(), event.getPatientId(),
+                                        event.getChangeType()))
+                                .toList())
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RestClientException e) {
+                // left in the outbox for the next run
+                if (failing.add(subscriber))
+                    log.warn("Could not deliver patient events to {}: {}", subscriber, e.getMessage());
+                return;
+            }
+            if (failing.remove(subscriber))
+                log.info("Resumed delivering patient events to {}", subscriber);
+            patientEventRepository.deleteAllInBatch(batch);
+            if (batch.size() < batchSize)
+                return;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package microservice.patientservice.models;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds names to their search key: accents removed, lower case, single
+ * spaces. "  Élodie  Marie" becomes "elodie marie".
+ */
+public final class NameNormalizer {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private NameNormalizer() {
+    }
+
+    public static String normalize(String name) {
+        if (name == null)
+            return null;
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(folded.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+}
@@ -4,7 +4,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import lombok.Builder;
 import lombok.Getter;
@@ -13,6 +19,12 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_patient_name_key", columnList = "name_key, first_name_key, id"),
+        @Index(name = "idx_patient_first_name_key", columnList = "first_name_key, id"),
+        @Index(name = "idx_patient_birth_date", columnList = "birth_date"),
+        @Index(name = "idx_patient_change_version", columnList = "change_version")
+})
 @Builder
 @Getter
 @Setter
@@ -20,7 +32,8 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name")
@@ -34,4 +47,36 @@ public class Patient {
 
     @Column(name = "contact")
     private String contact;
+
+    @Column(name = "nameKey")
+    private String nameKey;
+
+    @Column(name = "firstNameKey")
+    private String firstNameKey;
+
+    // version of the transaction that last wrote the patient, see PatientChangeVersions
+    @Column(name = "changeVersion", nullable = false)
+    private Long changeVersion;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // keys kept in step here too, so an update is flushed once with them
+    public void setName(String name) {
+        this.name = name;
+        this.nameKey = NameNormalizer.normalize(name);
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+        this.firstNameKey = NameNormalizer.normalize(firstName);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        this.nameKey = NameNormalizer.normalize(name);
+        this.firstNameKey = NameNormalizer.normalize(firstName);
+    }
 }
@@ -0,0 +1,52 @@
+package microservice.patientservice.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import microservice.patientservice.events.PatientChangeType;
+
+/**
+ * Outbox row, written in the transaction of the patient change it records,
+ * once per subscriber, and deleted when that subscriber has received it.
+ */
+@Entity
+@Table(name = "patient_event", indexes = {
+        @Index(name = "idx_patient_event_subscriber_id", columnList = "subscriber, id")
+})
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_event_seq")
+    @SequenceGenerator(name = "patient_event_seq", sequenceName = "patient_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "subscriber", nullable = false)
+    private String subscriber;
+
+    @Column(name = "patientId", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "changeType", nullable = false)
+    private PatientChangeType changeType;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package microservice.patientservice.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Marks a deleted patient with the change version of its deletion. */
+@Entity
+@Table(name = "patient_tombstone", indexes = {
+        @Index(name = "idx_patient_tombstone_change_version", columnList = "change_version")
+})
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientTombstone {
+    @Id
+    @Column(name = "patientId")
+    private Long patientId;
+
+    @Column(name = "changeVersion", nullable = false)
+    private Long changeVersion;
+}
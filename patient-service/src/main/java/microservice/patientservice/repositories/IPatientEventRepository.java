@@ -0,0 +1,14 @@
+package microservice.patientservice.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import microservice.patientservice.models.PatientEvent;
+
+@Repository
+public interface IPatientEventRepository extends JpaRepository<PatientEvent, Long> {
+    List<PatientEvent> findBySubscriberOrderByIdAsc(String subscriber, Limit limit);
+}
@@ -1,9 +1,35 @@
 package microservice.patientservice.repositories;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
 import microservice.patientservice.models.Patient;
 
 @Repository
-public interface IPatientRepository extends JpaRepository<Patient, Long> {
+public interface IPatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Patient> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Patient> streamByChangeVersionGreaterThanOrderByIdAsc(Long changeVersion);
+
+    @Query("select coalesce(max(p.changeVersion), 0) from Patient p")
+    long findMaxChangeVersion();
 }
@@ -0,0 +1,24 @@
+package microservice.patientservice.repositories;
+
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import microservice.patientservice.models.PatientTombstone;
+
+@Repository
+public interface IPatientTombstoneRepository extends JpaRepository<PatientTombstone, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<PatientTombstone> streamByChangeVersionGreaterThanOrderByPatientIdAsc(Long changeVersion);
+
+    @Query("select coalesce(max(t.changeVersion), 0) from PatientTombstone t")
+    long findMaxChangeVersion();
+}
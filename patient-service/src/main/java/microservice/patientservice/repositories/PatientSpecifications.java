@@ -0,0 +1,38 @@
+package microservice.patientservice.repositories;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import microservice.patientservice.models.NameNormalizer;
+import microservice.patientservice.models.Patient;
+
+/**
+ * Search criteria on the normalized name columns. Only the criteria that are
+ * set end up in the query, so each combination can use its index.
+ */
+public final class PatientSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private PatientSpecifications() {
+    }
+
+    public static Specification<Patient> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("nameKey"), likePrefix(prefix), LIKE_ESCAPE);
+    }
+
+    public static Specification<Patient> firstNameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("firstNameKey"), likePrefix(prefix), LIKE_ESCAPE);
+    }
+
+    public static Specification<Patient> bornOn(LocalDate birthDate) {
+        return (root, query, cb) -> cb.equal(root.get("birthDate"), birthDate);
+    }
+
+    private static String likePrefix(String prefix) {
+        return NameNormalizer.normalize(prefix)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
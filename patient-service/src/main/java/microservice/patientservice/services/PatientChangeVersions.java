@@ -0,0 +1,88 @@
+package microservice.patientservice.services;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import microservice.patientservice.repositories.IPatientRepository;
+import microservice.patientservice.repositories.IPatientTombstoneRepository;
+
+/**
+ * Hands out change versions from a database sequence, one per transaction,
+ * and tracks those whose transaction is still open. Versions are taken
+ * before commit, so they do not commit in order; committedUpTo() is the
+ * highest version below which every change is visible, which is what an
+ * incremental export can safely report. Assumes a single patient-service
+ * instance writes patients.
+ */
+@Component
+public class PatientChangeVersions implements InitializingBean {
+    private final EntityManager entityManager;
+    private final IPatientRepository patientRepository;
+    private final IPatientTombstoneRepository patientTombstoneRepository;
+    private final Object lock = new Object();
+    // guarded by lock
+    private final NavigableSet<Long> open = new TreeSet<>();
+    private long highest;
+
+    public PatientChangeVersions(EntityManager entityManager, IPatientRepository patientRepository,
+            IPatientTombstoneRepository patientTombstoneRepository) {
+        this.entityManager = entityManager;
+        this.patientRepository = patientRepository;
+        this.patientTombstoneRepository = patientTombstoneRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long max = Math.max(patientRepository.findMaxChangeVersion(),
+                patientTombstoneRepository.findMaxChangeVersion());
+        synchronized (lock) {
+            highest = Math.max(highest, max);
+        }
+    }
+
+    /** The version of the current transaction, taken on first use. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long current() {
+        Long version = (Long) TransactionSynchronizationManager.getResource(this);
+        if (version != null)
+            return version;
+
+        // taken and registered as open under the lock, so committedUpTo() never sees a later
+        // version committed while this one is taken but not yet open
+        long next;
+        synchronized (lock) {
+            // a native query flushes pending changes first by default, which would write a patient twice
+            next = ((Number) entityManager.createNativeQuery("select next value for patient_change_seq")
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .getSingleResult()).longValue();
+            open.add(next);
+            highest = Math.max(highest, next);
+        }
+        TransactionSynchronizationManager.bindResource(this, next);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(PatientChangeVersions.this);
+                synchronized (lock) {
+                    open.remove(next);
+                }
+            }
+        });
+        return next;
+    }
+
+    public long committedUpTo() {
+        synchronized (lock) {
+            return open.isEmpty() ? highest : Math.min(highest, open.first() - 1);
+        }
+    }
+}
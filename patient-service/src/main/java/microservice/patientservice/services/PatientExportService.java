@@ -0,0 +1,135 @@
+package microservice.patientservice.services;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import microservice.patientservice.models.Patient;
+import microservice.patientservice.models.PatientTombstone;
+import microservice.patientservice.repositories.IPatientRepository;
+import microservice.patientservice.repositories.IPatientTombstoneRepository;
+
+/**
+ * Streams patients in a compact binary format, straight from a database
+ * cursor. A stream is a sequence of length-prefixed records, big-endian:
+ *
+ * <pre>
+ * record    = type:u8 length:i32 payload[length]
+ * PATIENT   = id:i64 changeVersion:i64 name:str firstName:str birthDate:i64 contact:str
+ * TOMBSTONE = id:i64 changeVersion:i64
+ * str       = present:u8 [byteLength:i32 utf8[byteLength]]
+ * </pre>
+ *
+ * birthDate is an epoch day, Long.MIN_VALUE when unknown. Readers skip the
+ * record types and trailing payload bytes they do not know.
+ */
+@Service
+public class PatientExportService {
+    public static final String MEDIA_TYPE = "application/vnd.patient-export";
+    public static final byte PATIENT = 1;
+    public static final byte TOMBSTONE = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IPatientRepository patientRepository;
+    private final IPatientTombstoneRepository patientTombstoneRepository;
+    private final EntityManager entityManager;
+
+    public PatientExportService(IPatientRepository patientRepository,
+            IPatientTombstoneRepository patientTombstoneRepository, EntityManager entityManager) {
+        this.patientRepository = patientRepository;
+        this.patientTombstoneRepository = patientTombstoneRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Writes every patient or, with since, the patients written after that
+     * change version followed by the tombstones of those deleted after it.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long since, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        RecordWriter writer = new RecordWriter(out);
+        try (Stream<Patient> patients = since == null ? patientRepository.streamAllByOrderByIdAsc()
+                : patientRepository.streamByChangeVersionGreaterThanOrderByIdAsc(since)) {
+            patients.forEach(patient -> {
+                writer.writePatient(patient);
+                entityManager.detach(patient);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (since != null) {
+            try (Stream<PatientTombstone> tombstones = patientTombstoneRepository
+                    .streamByChangeVersionGreaterThanOrderByPatientIdAsc(since)) {
+                tombstones.forEach(tombstone -> {
+                    writer.writeTombstone(tombstone);
+                    entityManager.detach(tombstone);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        out.flush();
+    }
+
+    /** Encodes each payload in a reused buffer, then writes it behind its length. */
+    private static final class RecordWriter {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream payload = new DataOutputStream(payloadBytes);
+
+        private RecordWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writePatient(Patient patient) {
+            try {
+                payload.writeLong(patient.getId());
+                payload.writeLong(patient.getChangeVersion());
+                writeString(patient.getName());
+                writeString(patient.getFirstName());
+                payload.writeLong(patient.getBirthDate() != null ? patient.getBirthDate().toEpochDay() : Long.MIN_VALUE);
+                writeString(patient.getContact());
+                flushRecord(PATIENT);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeTombstone(PatientTombstone tombstone) {
+            try {
+                payload.writeLong(tombstone.getPatientId());
+                payload.writeLong(tombstone.getChangeVersion());
+                flushRecord(TOMBSTONE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            payload.writeBoolean(value != null);
+            if (value == null)
+                return;
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            payload.writeInt(bytes.length);
+            payload.write(bytes);
+        }
+
+        private void flushRecord(byte type) throws IOException {
+            out.writeByte(type);
+            out.writeInt(payloadBytes.size());
+            payloadBytes.writeTo(out);
+            payloadBytes.reset();
+        }
+    }
+}
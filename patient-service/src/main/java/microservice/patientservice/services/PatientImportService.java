@@ -0,0 +1,38 @@
+package microservice.patientservice.services;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import microservice.patientservice.dto.BulkResultDTO;
+import microservice.patientservice.dto.BulkRow;
+import microservice.patientservice.dto.PatientDTO;
+import microservice.patientservice.models.Patient;
+
+@Service
+public class PatientImportService {
+    private final PatientService patientService;
+
+    public PatientImportService(PatientService patientService) {
+        this.patientService = patientService;
+    }
+
+    /**
+     * Inserts a chunk in one transaction (one JDBC batch). If the chunk fails,
+     * its rows are retried one by one so only the offending rows are reported.
+     */
+    public void importChunk(List<BulkRow<PatientDTO>> chunk, BulkResultDTO result) {
+        try {
+            List<Patient> saved = patientService.createPatients(chunk.stream().map(BulkRow::value).toList());
+            saved.forEach(patient -> result.getCreatedIds().add(patient.getId()));
+        } catch (RuntimeException chunkError) {
+            for (BulkRow<PatientDTO> row : chunk) {
+                try {
+                    result.getCreatedIds().add(patientService.createPatient(row.value()).getId());
+                } catch (RuntimeException rowError) {
+                    result.addError(row.index(), rowError.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,27 +1,68 @@
 package microservice.patientservice.services;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import io.micrometer.core.annotation.Timed;
 import microservice.patientservice.repositories.IPatientRepository;
+import microservice.patientservice.repositories.PatientSpecifications;
+import microservice.patientservice.models.NameNormalizer;
 import microservice.patientservice.models.Patient;
+import microservice.patientservice.models.PatientTombstone;
+import microservice.patientservice.repositories.IPatientTombstoneRepository;
 import microservice.patientservice.dto.PatientDTO;
+import microservice.patientservice.events.PatientChangeType;
+import microservice.patientservice.events.PatientOutbox;
+import microservice.patientservice.exceptions.VersionConflictException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("service.invocations")
 public class PatientService {
     private final IPatientRepository patientRepository;
+    private final IPatientTombstoneRepository patientTombstoneRepository;
+    private final PatientOutbox patientOutbox;
+    private final PatientChangeVersions changeVersions;
+    private final EntityManager entityManager;
 
-    public PatientService(IPatientRepository patientRepository) {
+    public PatientService(IPatientRepository patientRepository,
+            IPatientTombstoneRepository patientTombstoneRepository, PatientOutbox patientOutbox,
+            PatientChangeVersions changeVersions, EntityManager entityManager) {
         this.patientRepository = patientRepository;
+        this.patientTombstoneRepository = patientTombstoneRepository;
+        this.patientOutbox = patientOutbox;
+        this.changeVersions = changeVersions;
+        this.entityManager = entityManager;
     }
 
+    @Transactional
     public Patient createPatient(PatientDTO patientDTO) {
-        Patient patient = Patient.builder()
-                .name(patientDTO.getName())
-                .firstName(patientDTO.getFirstName())
-                .birthDate(patientDTO.getBirthDate())
-                .contact(patientDTO.getContact())
-                .build();
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(toPatient(patientDTO));
+        patientOutbox.record(saved.getId(), PatientChangeType.CREATED);
+        return saved;
+    }
+
+    @Transactional
+    public List<Patient> createPatients(List<PatientDTO> patientDTOs) {
+        List<Patient> saved = patientRepository.saveAll(patientDTOs.stream().map(this::toPatient).toList());
+        patientOutbox.recordAll(saved.stream().map(Patient::getId).toList(), PatientChangeType.CREATED);
+        return saved;
     }
 
     public Patient getPatientById(Long id) {
@@ -29,21 +70,133 @@ public class PatientService {
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
     }
 
-    public Patient updatePatient(Long id, PatientDTO patientDTO) {
+    public List<Patient> getPatientsByIds(Collection<Long> ids) {
+        return patientRepository.findAllById(ids);
+    }
+
+    /**
+     * Replaces the patient. With an expected version, fails unless the patient
+     * is still at it; without, still fails if a concurrent update commits first.
+     */
+    @Transactional
+    public Patient updatePatient(Long id, PatientDTO patientDTO, Long expectedVersion) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
+        checkVersion(patient, expectedVersion);
         patient.setName(patientDTO.getName());
         patient.setFirstName(patientDTO.getFirstName());
         patient.setBirthDate(patientDTO.getBirthDate());
         patient.setContact(patientDTO.getContact());
-        return patientRepository.save(patient);
+        patient.setChangeVersion(changeVersions.current());
+        Patient saved;
+        try {
+            // flushed now so the returned version is the new one
+            saved = patientRepository.saveAndFlush(patient);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException("Patient " + id + " was updated concurrently");
+        }
+        patientOutbox.record(id, PatientChangeType.UPDATED);
+        return saved;
     }
 
+    /**
+     * Sets only the non-null fields of the request, in one UPDATE statement
+     * on their columns, without reading the patient first.
+     */
+    @Transactional
+    public Patient patchPatient(Long id, PatientDTO changes, Long expectedVersion) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Patient> update = builder.createCriteriaUpdate(Patient.class);
+        Root<Patient> patient = update.from(Patient.class);
+        // bulk updates skip the entity callbacks, so the search keys are set here
+        if (changes.getName() != null) {
+            update.set(patient.<String>get("name"), changes.getName());
+            update.set(patient.<String>get("nameKey"), NameNormalizer.normalize(changes.getName()));
+        }
+        if (changes.getFirstName() != null) {
+            update.set(patient.<String>get("firstName"), changes.getFirstName());
+            update.set(patient.<String>get("firstNameKey"), NameNormalizer.normalize(changes.getFirstName()));
+        }
+        if (changes.getBirthDate() != null)
+            update.set(patient.<LocalDate>get("birthDate"), changes.getBirthDate());
+        if (changes.getContact() != null)
+            update.set(patient.<String>get("contact"), changes.getContact());
+        Path<Long> version = patient.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.set(patient.<Long>get("changeVersion"), changeVersions.current());
+
+        Predicate where = builder.equal(patient.get("id"), id);
+        if (expectedVersion != null)
+            where = builder.and(where, builder.equal(version, expectedVersion));
+        update.where(where);
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            if (!patientRepository.existsById(id))
+                throw new RuntimeException("Patient not found");
+            throw new VersionConflictException("Patient " + id + " is no longer at version " + expectedVersion);
+        }
+        patientOutbox.record(id, PatientChangeType.UPDATED);
+        return getPatientById(id);
+    }
+
+    @Transactional
     public void deletePatient(Long id) {
-        patientRepository.deleteById(id);
+        patientRepository.findById(id).ifPresent(patient -> {
+            patientRepository.delete(patient);
+            patientTombstoneRepository.save(PatientTombstone.builder()
+                    .patientId(id)
+                    .changeVersion(changeVersions.current())
+                    .build());
+            patientOutbox.record(id, PatientChangeType.DELETED);
+        });
     }
 
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
+
+    public Page<Patient> searchPatients(String name, String firstName, LocalDate birthDate, int page, int size) {
+        List<Specification<Patient>> criteria = new ArrayList<>();
+        if (name != null && !name.isBlank())
+            criteria.add(PatientSpecifications.nameStartsWith(name));
+        if (firstName != null && !firstName.isBlank())
+            criteria.add(PatientSpecifications.firstNameStartsWith(firstName));
+        if (birthDate != null)
+            criteria.add(PatientSpecifications.bornOn(birthDate));
+        if (criteria.isEmpty())
+            throw new IllegalArgumentException("At least one of name, firstName or birthDate is required");
+
+        return patientRepository.findAll(Specification.allOf(criteria),
+                PageRequest.of(page, size, Sort.by("nameKey", "firstNameKey", "id")));
+    }
+
+    public List<Patient> getPatientsAfter(Long cursor, int limit) {
+        return patientRepository.findByIdGreaterThanOrderByIdAsc(cursor != null ? cursor : 0L, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllPatients(Consumer<Patient> consumer) {
+        try (Stream<Patient> patients = patientRepository.streamAllByOrderByIdAsc()) {
+            patients.forEach(patient -> {
+                consumer.accept(patient);
+                entityManager.detach(patient);
+            });
+        }
+    }
+
+    private static void checkVersion(Patient patient, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion()))
+            throw new VersionConflictException("Patient " + patient.getId() + " is at version "
+                    + patient.getVersion() + ", not " + expectedVersion);
+    }
+
+    private Patient toPatient(PatientDTO patientDTO) {
+        return Patient.builder()
+                .name(patientDTO.getName())
+                .firstName(patientDTO.getFirstName())
+                .birthDate(patientDTO.getBirthDate())
+                .contact(patientDTO.getContact())
+                .changeVersion(changeVersions.current())
+                .build();
+    }
 }
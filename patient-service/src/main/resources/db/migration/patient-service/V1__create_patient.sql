@@ -0,0 +1,17 @@
+create sequence patient_seq start with 1 increment by 50;
+
+create table patient (
+    id bigint not null,
+    name varchar(255),
+    first_name varchar(255),
+    birth_date date,
+    contact varchar(255),
+    name_key varchar(255),
+    first_name_key varchar(255),
+    primary key (id)
+);
+
+-- search by name prefix, ordered by (name, first name, id)
+create index idx_patient_name_key on patient (name_key, first_name_key, id);
+create index idx_patient_first_name_key on patient (first_name_key, id);
+create index idx_patient_birth_date on patient (birth_date);
@@ -0,0 +1,13 @@
+create sequence patient_event_seq start with 1 increment by 50;
+
+-- outbox of patient changes, one row per subscriber until it has received the change
+create table patient_event (
+    id bigint not null,
+    subscriber varchar(255) not null,
+    patient_id bigint not null,
+    change_type varchar(255) not null check (change_type in ('CREATED','UPDATED','DELETED')),
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_patient_event_subscriber_id on patient_event (subscriber, id);
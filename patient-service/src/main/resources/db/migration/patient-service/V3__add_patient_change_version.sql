@@ -0,0 +1,13 @@
+-- one change version per transaction, for incremental exports
+create sequence patient_change_seq start with 1 increment by 1;
+
+alter table patient add column change_version bigint not null default 0;
+create index idx_patient_change_version on patient (change_version);
+
+-- deleted patients, so incremental exports can report deletions
+create table patient_tombstone (
+    patient_id bigint not null,
+    change_version bigint not null,
+    primary key (patient_id)
+);
+create index idx_patient_tombstone_change_version on patient_tombstone (change_version);
@@ -0,0 +1,2 @@
+-- optimistic locking, exposed as the ETag of a patient
+alter table patient add column version bigint not null default 0;
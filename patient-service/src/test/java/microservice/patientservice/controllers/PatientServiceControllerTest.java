@@ -0,0 +1,85 @@
+package microservice.patientservice.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import microservice.patientservice.dto.PatientDTO;
+import microservice.patientservice.models.Patient;
+import microservice.patientservice.services.PatientService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PatientServiceControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PatientService patientService;
+
+    private Long id;
+
+    @BeforeEach
+    void createPatient() {
+        Patient patient = patientService.createPatient(PatientDTO.builder().name("Doe").firstName("Jane").build());
+        id = patient.getId();
+    }
+
+    @Test
+    void eachWriteBumpsTheVersionOnce() throws Exception {
+        mockMvc.perform(get("/api/v1/patients/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(put("/api/v1/patients/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Smith\",\"firstName\":\"Jane\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(patch("/api/v1/patients/{id}", id).header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"contact\":\"jane@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.name").value("Smith"))
+                .andExpect(jsonPath("$.contact").value("jane@example.com"));
+    }
+
+    @Test
+    void staleIfMatchIsAFailedPrecondition() throws Exception {
+        mockMvc.perform(patch("/api/v1/patients/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"contact\":\"first\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/v1/patients/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Smith\",\"firstName\":\"Jane\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/v1/patients/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"contact\":\"second\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/v1/patients/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.contact").value("first"));
+    }
+
+    @Test
+    void unknownPatientIsNotFound() throws Exception {
+        mockMvc.perform(patch("/api/v1/patients/{id}", Long.MAX_VALUE).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"contact\":\"x\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
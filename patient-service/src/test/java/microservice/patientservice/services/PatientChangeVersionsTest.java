@@ -0,0 +1,78 @@
+package microservice.patientservice.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientChangeVersionsTest {
+    @Autowired
+    private PatientChangeVersions changeVersions;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void oneVersionPerTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long[] versions = transaction.execute(status -> new long[] { changeVersions.current(), changeVersions.current() });
+        long next = transaction.execute(status -> changeVersions.current());
+
+        assertEquals(versions[0], versions[1]);
+        assertTrue(next > versions[0]);
+        assertEquals(next, changeVersions.committedUpTo());
+    }
+
+    @Test
+    void requiresATransaction() {
+        assertThrows(IllegalTransactionStateException.class, changeVersions::current);
+    }
+
+    @Test
+    void committedUpToStopsBelowTheOldestOpenTransaction() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Long> open = executor.submit(() -> transaction.execute(status -> {
+            long version = changeVersions.current();
+            taken.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return version;
+        }));
+        assertTrue(taken.await(10, TimeUnit.SECONDS));
+
+        long later = transaction.execute(status -> changeVersions.current());
+        long earlier = changeVersions.committedUpTo() + 1;
+        release.countDown();
+
+        assertEquals(earlier, open.get(10, TimeUnit.SECONDS));
+        assertTrue(later > earlier);
+        assertEquals(later, changeVersions.committedUpTo());
+    }
+}
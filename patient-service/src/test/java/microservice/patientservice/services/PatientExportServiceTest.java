@@ -0,0 +1,120 @@
+package microservice.patientservice.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import microservice.patientservice.dto.PatientDTO;
+import microservice.patientservice.models.Patient;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientExportServiceTest {
+    @Autowired
+    private PatientExportService patientExportService;
+    @Autowired
+    private PatientService patientService;
+    @Autowired
+    private PatientChangeVersions changeVersions;
+
+    @Test
+    void fullExportReadsBackEveryField() throws IOException {
+        Patient jane = patientService.createPatient(PatientDTO.builder()
+                .name("Doe").firstName("Jane").birthDate(LocalDate.of(1990, 2, 3)).contact("jane@example.com")
+                .build());
+        Patient emile = patientService.createPatient(PatientDTO.builder()
+                .name("Lefèvre").firstName("Émile")
+                .build());
+
+        Map<Long, ExportRecord> exported = byId(export(null));
+
+        assertEquals(new ExportRecord(PatientExportService.PATIENT, jane.getId(), jane.getChangeVersion(), "Doe",
+                "Jane", LocalDate.of(1990, 2, 3), "jane@example.com"), exported.get(jane.getId()));
+        ExportRecord read = exported.get(emile.getId());
+        assertEquals("Lefèvre", read.name());
+        assertEquals("Émile", read.firstName());
+        assertNull(read.birthDate());
+        assertNull(read.contact());
+    }
+
+    @Test
+    void incrementalExportHasChangesThenTombstones() throws IOException {
+        Patient kept = patientService.createPatient(PatientDTO.builder().name("Kept").firstName("A").build());
+        Patient updated = patientService.createPatient(PatientDTO.builder().name("Updated").firstName("B").build());
+        Patient deleted = patientService.createPatient(PatientDTO.builder().name("Deleted").firstName("C").build());
+        long since = changeVersions.committedUpTo();
+
+        patientService.patchPatient(updated.getId(), PatientDTO.builder().contact("b@example.com").build(), null);
+        patientService.deletePatient(deleted.getId());
+        Patient created = patientService.createPatient(PatientDTO.builder().name("Created").firstName("D").build());
+
+        List<ExportRecord> records = export(since);
+
+        assertEquals(List.of(updated.getId(), created.getId(), deleted.getId()),
+                records.stream().map(ExportRecord::id).toList());
+        assertEquals(List.of(PatientExportService.PATIENT, PatientExportService.PATIENT,
+                PatientExportService.TOMBSTONE), records.stream().map(ExportRecord::type).toList());
+        assertEquals("b@example.com", records.get(0).contact());
+        records.forEach(record -> assertTrue(record.changeVersion() > since));
+        assertFalse(records.stream().anyMatch(record -> record.id() == kept.getId()));
+    }
+
+    private List<ExportRecord> export(Long since) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        patientExportService.export(since, bytes);
+
+        List<ExportRecord> records = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        while (in.available() > 0) {
+            byte type = in.readByte();
+            byte[] payload = in.readNBytes(in.readInt());
+            DataInputStream fields = new DataInputStream(new ByteArrayInputStream(payload));
+            long id = fields.readLong();
+            long changeVersion = fields.readLong();
+            if (type == PatientExportService.TOMBSTONE) {
+                records.add(new ExportRecord(type, id, changeVersion, null, null, null, null));
+                continue;
+            }
+            String name = readString(fields);
+            String firstName = readString(fields);
+            long birthDate = fields.readLong();
+            String contact = readString(fields);
+            records.add(new ExportRecord(type, id, changeVersion, name, firstName,
+                    birthDate == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(birthDate), contact));
+            assertEquals(0, fields.available());
+        }
+        return records;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean())
+            return null;
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+
+    private static Map<Long, ExportRecord> byId(List<ExportRecord> records) {
+        return records.stream().collect(Collectors.toMap(ExportRecord::id, Function.identity()));
+    }
+
+    private record ExportRecord(byte type, long id, long changeVersion, String name, String firstName,
+            LocalDate birthDate, String contact) {
+    }
+}